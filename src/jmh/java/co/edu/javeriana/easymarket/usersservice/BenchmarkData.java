@@ -0,0 +1,63 @@
+package co.edu.javeriana.easymarket.usersservice;
+
+import co.edu.javeriana.easymarket.usersservice.model.Address;
+import co.edu.javeriana.easymarket.usersservice.model.PaymentMethod;
+import co.edu.javeriana.easymarket.usersservice.model.User;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+// Deterministic fixtures shared by the benchmarks
+public final class BenchmarkData {
+    private BenchmarkData() {
+    }
+
+    public static User user(int i) {
+        User user = new User();
+        user.setId("00000000-0000-0000-0000-" + String.format("%012d", i));
+        user.setUsername("user" + i);
+        user.setFullname("Benchmark User " + i);
+        user.setEmail("user" + i + "@easymarket.com");
+        user.setRol(i % 10 == 0 ? "admin" : "customer");
+        user.setDeleted(false);
+        return user;
+    }
+
+    public static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            users.add(user(i));
+        return users;
+    }
+
+    public static Address address(int i) {
+        Address address = new Address();
+        address.setId(i);
+        address.setUserId(user(i).getId());
+        address.setName("Home " + i);
+        address.setAddress("Calle " + i + " # 10-20");
+        address.setDetails("Apto " + i);
+        address.setLatitude(new BigDecimal("4.711000"));
+        address.setLongitude(new BigDecimal("-74.072100"));
+        return address;
+    }
+
+    public static PaymentMethod paymentMethod(int i) {
+        PaymentMethod paymentMethod = new PaymentMethod();
+        paymentMethod.setId(i);
+        paymentMethod.setUserId(user(i).getId());
+        paymentMethod.setCardNumber("4111111111111111");
+        paymentMethod.setEmail("user" + i + "@easymarket.com");
+        paymentMethod.setPhone("3001234567");
+        paymentMethod.setExpiryDate("122030");
+        paymentMethod.setCardHolderName("Benchmark User " + i);
+        paymentMethod.setCity("Bogota");
+        paymentMethod.setFirstLine("Calle " + i);
+        paymentMethod.setSecondLine("Apto " + i);
+        paymentMethod.setCountry("Colombia");
+        paymentMethod.setPostalCode("110111");
+        paymentMethod.setStateName("Cundinamarca");
+        return paymentMethod;
+    }
+}
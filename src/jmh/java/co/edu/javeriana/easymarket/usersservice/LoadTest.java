@@ -0,0 +1,111 @@
+package co.edu.javeriana.easymarket.usersservice;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Closed-loop HTTP load test against a running instance: every client sends its next GET as soon
+// as the previous one answers. Run it once against the service started with
+// spring.threads.virtual.enabled=false and once with true, same database and pool size, and compare
+// the throughput and p99 it prints. Responses during the warmup are not recorded.
+//
+// Arguments: <url> [clients=200] [duration=30s] [warmup=10s]
+public final class LoadTest {
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: LoadTest <url> [clients=200] [duration=30s] [warmup=10s]");
+            System.exit(1);
+        }
+        URI uri = URI.create(args[0]);
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        Duration duration = args.length > 2 ? parse(args[2]) : Duration.ofSeconds(30);
+        Duration warmup = args.length > 3 ? parse(args[3]) : Duration.ofSeconds(10);
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        List<Future<Client>> results = new ArrayList<>(clients);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++)
+                results.add(executor.submit(() -> new Client().run(http, request, measureFrom, end)));
+        }
+
+        int count = 0;
+        long errors = 0;
+        for (Future<Client> result : results) {
+            count += result.get().count;
+            errors += result.get().errors;
+        }
+        long[] latencies = new long[count];
+        int offset = 0;
+        for (Future<Client> result : results) {
+            Client client = result.get();
+            System.arraycopy(client.latencies, 0, latencies, offset, client.count);
+            offset += client.count;
+        }
+        Arrays.sort(latencies);
+
+        double seconds = duration.toNanos() / 1e9;
+        System.out.printf("%s, %d clients, %s (after %s warmup)%n", uri, clients, duration, warmup);
+        System.out.printf("requests: %d, errors: %d, throughput: %.1f req/s%n", count, errors, count / seconds);
+        if (count > 0)
+            System.out.printf("latency ms: p50 %.2f, p90 %.2f, p99 %.2f, max %.2f%n",
+                    percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                    latencies[count - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    private static Duration parse(String value) {
+        return Duration.parse("PT" + value.toUpperCase());
+    }
+
+    private static final class Client {
+        long[] latencies = new long[1024];
+        int count;
+        long errors;
+
+        Client run(HttpClient http, HttpRequest request, long measureFrom, long end) {
+            long now;
+            while ((now = System.nanoTime()) < end) {
+                boolean ok;
+                try {
+                    ok = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 500;
+                } catch (Exception e) {
+                    ok = false;
+                }
+                if (now < measureFrom)
+                    continue;
+                if (!ok) {
+                    errors++;
+                    continue;
+                }
+                if (count == latencies.length)
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                latencies[count++] = System.nanoTime() - now;
+            }
+            return this;
+        }
+    }
+}
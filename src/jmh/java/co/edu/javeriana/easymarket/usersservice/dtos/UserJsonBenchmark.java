@@ -0,0 +1,40 @@
+package co.edu.javeriana.easymarket.usersservice.dtos;
+
+import co.edu.javeriana.easymarket.usersservice.BenchmarkData;
+import co.edu.javeriana.easymarket.usersservice.mappers.UserMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON serialization of the user list payloads returned by GET /api/v1/users
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class UserJsonBenchmark {
+    @Param({"10", "100", "500"})
+    public int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<UserDTO> users;
+    private PageDTO<UserDTO> page;
+
+    @Setup
+    public void setUp() {
+        UserMapper userMapper = new UserMapper();
+        users = BenchmarkData.users(size).stream().map(userMapper::userToUserDTO).toList();
+        page = new PageDTO<>(users, "bmV4dA", (long) size);
+    }
+
+    @Benchmark
+    public byte[] serializeUserList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public byte[] serializeUserPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
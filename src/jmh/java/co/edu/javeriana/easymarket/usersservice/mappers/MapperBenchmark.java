@@ -0,0 +1,90 @@
+package co.edu.javeriana.easymarket.usersservice.mappers;
+
+import co.edu.javeriana.easymarket.usersservice.BenchmarkData;
+import co.edu.javeriana.easymarket.usersservice.dtos.AddressDTO;
+import co.edu.javeriana.easymarket.usersservice.dtos.PaymentMethodDTO;
+import co.edu.javeriana.easymarket.usersservice.dtos.UserDTO;
+import co.edu.javeriana.easymarket.usersservice.model.Address;
+import co.edu.javeriana.easymarket.usersservice.model.PaymentMethod;
+import co.edu.javeriana.easymarket.usersservice.model.User;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Per-object conversion cost of the mappers; the modelMapper* methods are the former
+// reflective implementation, kept as the baseline
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+    private final UserMapper userMapper = new UserMapper();
+    private final AddressMapper addressMapper = new AddressMapper();
+    private final PaymentMethodMapper paymentMethodMapper = new PaymentMethodMapper();
+    private ModelMapper modelMapper;
+
+    private User user;
+    private UserDTO userDTO;
+    private Address address;
+    private PaymentMethod paymentMethod;
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration().setSkipNullEnabled(true);
+        user = BenchmarkData.user(1);
+        userDTO = userMapper.userToUserDTO(user);
+        address = BenchmarkData.address(1);
+        paymentMethod = BenchmarkData.paymentMethod(1);
+        users = BenchmarkData.users(100);
+    }
+
+    @Benchmark
+    public UserDTO userToUserDTO() {
+        return userMapper.userToUserDTO(user);
+    }
+
+    @Benchmark
+    public UserDTO userToUserDTO_modelMapper() {
+        return modelMapper.map(user, UserDTO.class);
+    }
+
+    @Benchmark
+    public User userDTOToUser() {
+        return userMapper.userDTOToUser(userDTO);
+    }
+
+    @Benchmark
+    public User userDTOToUser_modelMapper() {
+        return modelMapper.map(userDTO, User.class);
+    }
+
+    @Benchmark
+    public AddressDTO addressToAddressDTO() {
+        return addressMapper.addressToAddressDTO(address);
+    }
+
+    @Benchmark
+    public AddressDTO addressToAddressDTO_modelMapper() {
+        return modelMapper.map(address, AddressDTO.class);
+    }
+
+    @Benchmark
+    public PaymentMethodDTO paymentMethodToPaymentMethodDTO() {
+        return paymentMethodMapper.paymentMethodToPaymentMethodDTO(paymentMethod);
+    }
+
+    @Benchmark
+    public PaymentMethodDTO paymentMethodToPaymentMethodDTO_modelMapper() {
+        return modelMapper.map(paymentMethod, PaymentMethodDTO.class);
+    }
+
+    // A 100-element list endpoint, as GET /api/v1/users maps it
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public List<UserDTO> userListToUserDTOs() {
+        return users.stream().map(userMapper::userToUserDTO).toList();
+    }
+}
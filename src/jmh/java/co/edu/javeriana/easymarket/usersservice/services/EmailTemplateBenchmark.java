@@ -0,0 +1,91 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+// Email rendering: precompiled templates against the former String.formatted text blocks, and the
+// cost of a complete MIME message with the shared inline logo. Run with "-prof gc" (the profile
+// default) to get the allocation per operation (gc.alloc.rate.norm).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class EmailTemplateBenchmark {
+    private static final String TITLE = "Usuario restaurado";
+    private static final String CONTENT = "El usuario con el siguiente ID ha sido restaurado:<br>00000000-0000-0000-0000-000000000001";
+    private static final String ID = "00000000-0000-0000-0000-000000000001";
+    private static final String LOGO_URL = "https://raw.githubusercontent.com/Easy-Market-SPL/.github/refs/heads/main/Banner.png";
+
+    private EmailService emailService;
+    private EmailService emailServiceWithLogo;
+
+    @Setup
+    public void setUp() {
+        emailService = new EmailService(null, null, null, null);
+        // With mail.from set the Message-ID is not derived from a local host name lookup
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        Properties properties = new Properties();
+        properties.setProperty("mail.from", "noreply@easymarket.com");
+        mailSender.setJavaMailProperties(properties);
+        emailServiceWithLogo = new EmailService(mailSender, null, new ClassPathResource("email/test-logo.png"), null);
+    }
+
+    @Benchmark
+    public String buildHtmlTemplate() {
+        return emailService.buildHtmlTemplate(TITLE, CONTENT);
+    }
+
+    @Benchmark
+    public String buildHtmlTemplate_formatted() {
+        return """
+            <div style="font-family: Arial, sans-serif; color: #333;">
+                <div style="text-align: center; padding: 20px 0;">
+                    <img src="%s" alt="Logo" style="width: 200px;">
+                </div>
+                <div style="padding: 20px; background-color: #f9f9f9; border-radius: 8px; max-width: 600px; margin: auto;">
+                    <h2 style="color: #222;">%s</h2>
+                    <p style="font-size: 16px; line-height: 1.6;">%s</p>
+                </div>
+                <div style="font-size: 12px; color: #777; padding: 20px; text-align: center;">
+                    <hr style="margin: 20px 0;">
+                    <p>Este correo fue generado automáticamente por EasyMarket.</p>
+                    <p>Si no reconoces esta actividad, por favor reporta el incidente a <a href="mailto:seguridad@easymarket.com">seguridad@easymarket.com</a>.</p>
+                    <p>Por favor no respondas a este correo directamente.</p>
+                </div>
+            </div>
+            """.formatted(LOGO_URL, TITLE, CONTENT);
+    }
+
+    @Benchmark
+    public String formatQuote() {
+        return EmailService.formatQuote(ID);
+    }
+
+    @Benchmark
+    public String formatQuote_formatted() {
+        return """
+            <blockquote style="background-color: #f0f4ff; border-left: 4px solid #3399ff; padding: 10px 15px; margin: 10px 0; font-family: monospace; color: #003366;">
+                %s
+            </blockquote>
+            """.formatted(ID);
+    }
+
+    // Render, build and encode one message with the inline logo, as the SMTP transport would
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public MimeMessage createMessage() throws MessagingException, IOException {
+        MimeMessage message = emailServiceWithLogo.createMessage(TITLE, "admin@example.com",
+                emailServiceWithLogo.buildHtmlTemplate(TITLE, CONTENT));
+        message.saveChanges();
+        message.writeTo(OutputStream.nullOutputStream());
+        return message;
+    }
+}
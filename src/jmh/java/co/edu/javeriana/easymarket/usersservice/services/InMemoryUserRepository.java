@@ -0,0 +1,84 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import co.edu.javeriana.easymarket.usersservice.model.User;
+import co.edu.javeriana.easymarket.usersservice.repository.UserRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.*;
+
+// Map-backed stand-in for the JPA repository so UserService can be measured without a database.
+// Only the methods exercised by the benchmarks are implemented.
+final class InMemoryUserRepository implements InvocationHandler {
+    private final Map<String, User> byId = new HashMap<>();
+    private final Map<String, String> idByEmail = new HashMap<>();
+    private final Map<String, String> idByUsername = new HashMap<>();
+
+    static InMemoryUserRepository create() {
+        return new InMemoryUserRepository();
+    }
+
+    UserRepository repository() {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, this);
+    }
+
+    void forget(String id) {
+        User user = byId.remove(id);
+        if (user != null) {
+            idByEmail.remove(user.getEmail());
+            idByUsername.remove(user.getUsername());
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "insertUser" -> insert((String) args[0], (String) args[1], (String) args[2], (String) args[3],
+                    (String) args[4], (Boolean) args[5]);
+            case "findById" -> Optional.ofNullable(byId.get((String) args[0]));
+            case "findByEmail" -> Optional.ofNullable(idByEmail.get((String) args[0])).map(byId::get);
+            case "findByUsername" -> Optional.ofNullable(idByUsername.get((String) args[0])).map(byId::get);
+            case "save" -> save((User) args[0]);
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "InMemoryUserRepository";
+            default -> throw new UnsupportedOperationException(method.getName());
+        };
+    }
+
+    private int insert(String id, String email, String fullname, String username, String rol, boolean deleted) {
+        if (byId.containsKey(id)) throw violation("user_pkey");
+        if (idByEmail.containsKey(email)) throw violation("user_email_key");
+        if (idByUsername.containsKey(username)) throw violation("user_username_key");
+
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setFullname(fullname);
+        user.setUsername(username);
+        user.setRol(rol);
+        user.setDeleted(deleted);
+        return save(user) == null ? 0 : 1;
+    }
+
+    private User save(User user) {
+        User previous = byId.put(user.getId(), user);
+        if (previous != null) {
+            idByEmail.remove(previous.getEmail());
+            idByUsername.remove(previous.getUsername());
+        }
+        idByEmail.put(user.getEmail(), user.getId());
+        idByUsername.put(user.getUsername(), user.getId());
+        return user;
+    }
+
+    private static DataIntegrityViolationException violation(String constraint) {
+        return new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", new SQLException("duplicate key", "23505"), constraint));
+    }
+}
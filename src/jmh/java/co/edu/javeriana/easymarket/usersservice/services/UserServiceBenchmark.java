@@ -0,0 +1,48 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import co.edu.javeriana.easymarket.usersservice.BenchmarkData;
+import co.edu.javeriana.easymarket.usersservice.model.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// UserService create/update logic against an in-memory repository (no database round trips)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+    private static final int USERS = 1000;
+
+    private InMemoryUserRepository store;
+    private UserService userService;
+    private long sequence;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        store = InMemoryUserRepository.create();
+        userService = new UserService(store.repository(), new UserSearchIndex(null, null, "database"),
+                new UserCache(10_000, Duration.ofMinutes(10)), new AdminRoster(), new NotificationOutbox(null, false), event -> { }, null);
+        for (int i = 0; i < USERS; i++)
+            userService.createUser(BenchmarkData.user(i));
+        sequence = USERS;
+    }
+
+    @Benchmark
+    public User createUser() {
+        User user = BenchmarkData.user((int) (sequence++ % Integer.MAX_VALUE) + USERS);
+        User created = userService.createUser(user);
+        // Keep the store at a constant size between invocations
+        store.forget(created.getId());
+        return created;
+    }
+
+    @Benchmark
+    public User updateUser() {
+        int i = (int) (sequence++ % USERS);
+        User changes = new User();
+        changes.setFullname("Renamed User " + sequence);
+        changes.setRol(i % 2 == 0 ? "seller" : "customer");
+        return userService.updateUser(BenchmarkData.user(i).getId(), changes);
+    }
+}
@@ -0,0 +1,48 @@
+package co.edu.javeriana.easymarket.usersservice.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// With virtual threads every request gets its own thread, so thousands of them can reach the
+// repositories at once. Connections are then handed out through a fair semaphore sized to the
+// Hikari pool: waiting virtual threads park cheaply in FIFO order instead of piling up on the pool
+// and timing out there.
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class JdbcAdmissionConfig {
+
+    @Bean
+    public static BeanPostProcessor jdbcAdmissionPostProcessor(
+            @Value("${jdbc.admission.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+            @Value("${jdbc.admission.timeout:${spring.datasource.hikari.connection-timeout:30000}}") Duration timeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof AdmissionControlledDataSource))
+                    return new AdmissionControlledDataSource(dataSource, permits, timeout);
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder jdbcAdmissionMetrics(ObjectProvider<DataSource> dataSources) {
+        return registry -> dataSources.orderedStream()
+                .filter(AdmissionControlledDataSource.class::isInstance)
+                .map(AdmissionControlledDataSource.class::cast)
+                .findFirst()
+                .ifPresent(dataSource -> Gauge.builder("jdbc.admission.waiting", dataSource, AdmissionControlledDataSource::waiting)
+                        .description("Threads waiting for a JDBC connection permit")
+                        .register(registry));
+    }
+}
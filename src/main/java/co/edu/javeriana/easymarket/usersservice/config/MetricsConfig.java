@@ -0,0 +1,25 @@
+package co.edu.javeriana.easymarket.usersservice.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.Function;
+
+// Times every public method of the classes annotated with @Timed, tagged with the operation as
+// "Class.method". Percentile histograms are enabled per metric in application.yml.
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        Function<ProceedingJoinPoint, Iterable<Tag>> operation = joinPoint -> Tags.of("operation",
+                joinPoint.getStaticPart().getSignature().getDeclaringType().getSimpleName() + "."
+                        + joinPoint.getStaticPart().getSignature().getName());
+        return new TimedAspect(registry, operation);
+    }
+}
@@ -0,0 +1,116 @@
+package co.edu.javeriana.easymarket.usersservice.config;
+
+import co.edu.javeriana.easymarket.usersservice.services.MailDispatcher;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded executor for @Async notification work. When the queue is full the overflow policy decides
+// what happens to new tasks: caller-runs (backpressure on the request thread), discard or abort.
+// The executor depends on the mail dispatcher so that it is destroyed first: queued tasks are drained
+// on shutdown while the dispatcher is still accepting the messages they produce.
+@Configuration
+public class NotificationExecutorConfig {
+    public static final String NOTIFICATION_EXECUTOR = "notificationExecutor";
+    private static final Logger log = LoggerFactory.getLogger(NotificationExecutorConfig.class);
+
+    // Any Executor bean makes Boot back off its default executor, which MVC async requests (the NDJSON
+    // export) and unqualified @Async methods use, so it is declared here from Boot's builders: a pool
+    // on platform threads, or a virtual thread per task when spring.threads.virtual.enabled is set
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor applicationTaskExecutorVirtualThreads(SimpleAsyncTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(name = NOTIFICATION_EXECUTOR)
+    @DependsOn(MailDispatcher.BEAN_NAME)
+    public ThreadPoolTaskExecutor notificationExecutor(
+            @Value("${notifications.executor.virtual-threads:${spring.threads.virtual.enabled:false}}") boolean virtualThreads,
+            @Value("${notifications.executor.core-size:2}") int coreSize,
+            @Value("${notifications.executor.max-size:8}") int maxSize,
+            @Value("${notifications.executor.queue-capacity:1000}") int queueCapacity,
+            @Value("${notifications.executor.overflow:caller-runs}") String overflow,
+            @Value("${notifications.executor.await-termination:30s}") Duration awaitTermination) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("notification-");
+        if (virtualThreads)
+            executor.setThreadFactory(Thread.ofVirtual().name("notification-", 0).factory());
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new CountingRejectedExecutionHandler(overflowPolicy(overflow)));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationMillis(awaitTermination.toMillis());
+        return executor;
+    }
+
+    @Bean
+    public MeterBinder notificationExecutorMetrics(@Qualifier(NOTIFICATION_EXECUTOR) ThreadPoolTaskExecutor executor) {
+        return registry -> {
+            Gauge.builder("notifications.executor.queued", executor, e -> e.getQueueSize())
+                    .description("Notification tasks waiting in the queue")
+                    .register(registry);
+            Gauge.builder("notifications.executor.active", executor, e -> e.getActiveCount())
+                    .description("Notification tasks currently running")
+                    .register(registry);
+            FunctionCounter.builder("notifications.executor.rejected", executor,
+                            e -> ((CountingRejectedExecutionHandler) e.getThreadPoolExecutor().getRejectedExecutionHandler()).count())
+                    .description("Notification tasks that overflowed the queue")
+                    .register(registry);
+        };
+    }
+
+    static RejectedExecutionHandler overflowPolicy(String overflow) {
+        return switch (overflow.toLowerCase()) {
+            case "caller-runs" -> new ThreadPoolExecutor.CallerRunsPolicy();
+            case "abort" -> new ThreadPoolExecutor.AbortPolicy();
+            case "discard" -> (task, executor) -> log.warn("Notification queue is full, task discarded");
+            default -> throw new IllegalArgumentException("Unknown notifications.executor.overflow policy: " + overflow);
+        };
+    }
+
+    // Counts every overflow before applying the configured policy
+    static class CountingRejectedExecutionHandler implements RejectedExecutionHandler {
+        private final RejectedExecutionHandler delegate;
+        private final LongAdder rejected = new LongAdder();
+
+        CountingRejectedExecutionHandler(RejectedExecutionHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            rejected.increment();
+            delegate.rejectedExecution(task, executor);
+        }
+
+        long count() {
+            return rejected.sum();
+        }
+    }
+}
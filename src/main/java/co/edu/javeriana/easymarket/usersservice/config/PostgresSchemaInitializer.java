@@ -0,0 +1,69 @@
+package co.edu.javeriana.easymarket.usersservice.config;
+
+import co.edu.javeriana.easymarket.usersservice.utils.DatabasePlatform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+// Applies the idempotent PostgreSQL-only DDL (indexes, constraints) the JPA mappings cannot express.
+// The service relies on most of it (e.g. the unique indexes replace pre-insert lookups), so a failing
+// statement stops startup unless the script marks it as optional.
+// The script runs before the JPA EntityManagerFactory is created, so Hibernate starts against the
+// columns (version, grid_cell) and sequence increments the mappings expect.
+@Component
+public class PostgresSchemaInitializer implements InitializingBean {
+    private static final Logger log = LoggerFactory.getLogger(PostgresSchemaInitializer.class);
+    private static final String SCHEMA_SCRIPT = "db/postgresql/schema.sql";
+    private static final String OPTIONAL_MARKER = "-- optional";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    public PostgresSchemaInitializer(DataSource dataSource, JdbcTemplate jdbcTemplate) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws IOException {
+        if (!DatabasePlatform.isPostgres(dataSource))
+            return;
+
+        String script = StreamUtils.copyToString(new ClassPathResource(SCHEMA_SCRIPT).getInputStream(), StandardCharsets.UTF_8);
+        for (String statement : script.split(";\\s*(\\r?\\n|$)")) {
+            boolean optional = statement.lines().anyMatch(line -> line.strip().equals(OPTIONAL_MARKER));
+            String sql = statement.lines()
+                    .filter(line -> !line.isBlank() && !line.strip().startsWith("--"))
+                    .reduce("", (a, b) -> a + b + "\n")
+                    .strip();
+            if (sql.isEmpty())
+                continue;
+
+            try {
+                jdbcTemplate.execute(sql);
+            } catch (DataAccessException e) {
+                if (!optional)
+                    throw new IllegalStateException("Could not apply schema statement [" + sql + "]", e);
+                log.warn("Could not apply optional schema statement [{}]: {}", sql, e.getMessage());
+            }
+        }
+    }
+
+    // Makes the EntityManagerFactory wait for this initializer
+    @Component
+    static class JpaDependsOnSchema extends EntityManagerFactoryDependsOnPostProcessor {
+        JpaDependsOnSchema() {
+            super(PostgresSchemaInitializer.class);
+        }
+    }
+}
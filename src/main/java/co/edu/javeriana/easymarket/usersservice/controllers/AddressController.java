@@ -1,13 +1,27 @@
 package co.edu.javeriana.easymarket.usersservice.controllers;
 
 import co.edu.javeriana.easymarket.usersservice.dtos.AddressDTO;
+import co.edu.javeriana.easymarket.usersservice.dtos.BatchResultDTO;
+import co.edu.javeriana.easymarket.usersservice.dtos.DeleteResultDTO;
+import co.edu.javeriana.easymarket.usersservice.dtos.ImportResultDTO;
 import co.edu.javeriana.easymarket.usersservice.mappers.AddressMapper;
 import co.edu.javeriana.easymarket.usersservice.model.Address;
+import co.edu.javeriana.easymarket.usersservice.services.AddressImportService;
 import co.edu.javeriana.easymarket.usersservice.services.AddressService;
+import co.edu.javeriana.easymarket.usersservice.utils.ETags;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -15,18 +29,26 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/v1/users/{userId}/addresses")
 public class AddressController {
 
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
     private final AddressService addressService;
+    private final AddressImportService addressImportService;
     private final AddressMapper addressMapper;
 
-    public AddressController(AddressService addressService, AddressMapper addressMapper) {
+    public AddressController(AddressService addressService, AddressImportService addressImportService,
+                             AddressMapper addressMapper) {
         this.addressService = addressService;
+        this.addressImportService = addressImportService;
         this.addressMapper = addressMapper;
     }
 
-    // Get addresses from user id
+    // Get addresses from user id; 304 when If-None-Match holds the tag of the current list
     @GetMapping
-    public ResponseEntity<?> getAddresses(@PathVariable String userId) {
-        List<AddressDTO> addresses = addressService.getAddresses(userId).stream()
+    public ResponseEntity<?> getAddresses(@PathVariable String userId, WebRequest webRequest) {
+        List<Address> found = addressService.getAddresses(userId);
+        if (webRequest.checkNotModified(ETags.of(found, Address::getId, Address::getVersion)))
+            return null;
+        List<AddressDTO> addresses = found.stream()
                 .map(addressMapper::addressToAddressDTO)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(addresses);
@@ -34,11 +56,12 @@ public class AddressController {
 
     // Get address by id
     @GetMapping("/{addressId}")
-    public ResponseEntity<?> getAddress(@PathVariable String userId, @PathVariable Integer addressId) {
-        AddressDTO address = addressMapper.addressToAddressDTO(
-                addressService.getAddressById(userId, addressId)
-        );
-        return ResponseEntity.ok(address);
+    public ResponseEntity<?> getAddress(@PathVariable String userId, @PathVariable Integer addressId,
+                                        WebRequest webRequest) {
+        Address address = addressService.getAddressById(userId, addressId);
+        if (webRequest.checkNotModified(ETags.of(address.getVersion())))
+            return null;
+        return ResponseEntity.ok(addressMapper.addressToAddressDTO(address));
     }
 
     // Create a new address for a user
@@ -50,6 +73,34 @@ public class AddressController {
         return ResponseEntity.status(HttpStatus.CREATED).body(addressMapper.addressToAddressDTO(createdAddress));
     }
 
+    // Create many addresses for a user in one request; the response holds one result per item, in request order
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchResultDTO<AddressDTO>>> createAddresses(
+            @PathVariable String userId, @RequestBody List<AddressDTO> addressDTOs) {
+        List<Address> addresses = addressDTOs.stream()
+                .map(addressMapper::addressDTOToAddress)
+                .collect(Collectors.toList());
+        List<BatchResultDTO<AddressDTO>> results = addressService.createAddresses(userId, addresses).stream()
+                .map(result -> result.map(addressMapper::addressToAddressDTO))
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(results);
+    }
+
+    // Import addresses for a user from NDJSON (one address object per line) or CSV (header line with
+    // name,address,details,latitude,longitude). The body is read as it arrives, never buffered whole;
+    // the response counts the imported rows and lists the rejected lines
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<ImportResultDTO> importAddresses(@PathVariable String userId, HttpServletRequest request)
+            throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        AddressImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? AddressImportService.Format.NDJSON : AddressImportService.Format.CSV;
+        try (Reader body = new InputStreamReader(request.getInputStream(), charset)) {
+            return ResponseEntity.ok(addressImportService.importAddresses(userId, body, format));
+        }
+    }
+
     // Update an existing address
     @PutMapping("/{addressId}")
     public ResponseEntity<?> updateAddress(
@@ -62,10 +113,28 @@ public class AddressController {
         return ResponseEntity.ok(addressMapper.addressToAddressDTO(updated));
     }
 
+    // Partial update guarded by If-Match: 204 with the new ETag, 409 when the address changed since it was read
+    @PatchMapping("/{addressId}")
+    public ResponseEntity<Void> patchAddress(
+            @PathVariable String userId,
+            @PathVariable Integer addressId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody AddressDTO addressDTO) {
+        long version = addressService.patchAddress(userId, addressId, ETags.version(ifMatch),
+                addressMapper.addressDTOToAddress(addressDTO));
+        return ResponseEntity.noContent().eTag(ETags.of(version)).build();
+    }
+
     // Delete an address
     @DeleteMapping("/{addressId}")
     public ResponseEntity<?> deleteAddress(@PathVariable String userId, @PathVariable Integer addressId) {
         addressService.deleteAddress(userId, addressId);
         return ResponseEntity.noContent().build();
     }
+
+    // Delete many addresses of a user in one statement, e.g. DELETE ...?ids=1,2,3
+    @DeleteMapping
+    public ResponseEntity<DeleteResultDTO> deleteAddresses(@PathVariable String userId, @RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(addressService.deleteAddresses(userId, ids));
+    }
 }
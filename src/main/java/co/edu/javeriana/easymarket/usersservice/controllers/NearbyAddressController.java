@@ -0,0 +1,39 @@
+package co.edu.javeriana.easymarket.usersservice.controllers;
+
+import co.edu.javeriana.easymarket.usersservice.dtos.NearbyAddressDTO;
+import co.edu.javeriana.easymarket.usersservice.model.Address;
+import co.edu.javeriana.easymarket.usersservice.services.AddressService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/v1/addresses")
+public class NearbyAddressController {
+
+    private final AddressService addressService;
+
+    public NearbyAddressController(AddressService addressService) {
+        this.addressService = addressService;
+    }
+
+    // Addresses of any user within radiusKm of a point, closest first
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbyAddressDTO>> getNearbyAddresses(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam double radiusKm,
+            @RequestParam(required = false) Integer limit) {
+        List<NearbyAddressDTO> addresses = addressService.findNearby(lat, lon, radiusKm, limit).stream()
+                .map(nearby -> {
+                    Address address = nearby.address();
+                    return new NearbyAddressDTO(address.getId(), address.getUserId(), address.getName(),
+                            address.getAddress(), address.getDetails(), address.getLatitude(),
+                            address.getLongitude(), nearby.distanceKm());
+                })
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(addresses);
+    }
+}
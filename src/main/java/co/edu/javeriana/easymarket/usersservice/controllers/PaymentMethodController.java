@@ -1,12 +1,17 @@
 package co.edu.javeriana.easymarket.usersservice.controllers;
 
+import co.edu.javeriana.easymarket.usersservice.dtos.BatchResultDTO;
+import co.edu.javeriana.easymarket.usersservice.dtos.DeleteResultDTO;
 import co.edu.javeriana.easymarket.usersservice.dtos.PaymentMethodDTO;
 import co.edu.javeriana.easymarket.usersservice.mappers.PaymentMethodMapper;
 import co.edu.javeriana.easymarket.usersservice.model.PaymentMethod;
 import co.edu.javeriana.easymarket.usersservice.services.PaymentMethodService;
+import co.edu.javeriana.easymarket.usersservice.utils.ETags;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -22,10 +27,13 @@ public class PaymentMethodController {
         this.paymentMethodMapper = paymentMethodMapper;
     }
 
-    // Get payment methods from user id
+    // Get payment methods from user id; 304 when If-None-Match holds the tag of the current list
     @GetMapping
-    public ResponseEntity<?> getPaymentMethods(@PathVariable String userId) {
-        List<PaymentMethodDTO> paymentMethods = paymentMethodService.getPaymentMethodsByUserId(userId).stream()
+    public ResponseEntity<?> getPaymentMethods(@PathVariable String userId, WebRequest webRequest) {
+        List<PaymentMethod> found = paymentMethodService.getPaymentMethodsByUserId(userId);
+        if (webRequest.checkNotModified(ETags.of(found, PaymentMethod::getId, PaymentMethod::getVersion)))
+            return null;
+        List<PaymentMethodDTO> paymentMethods = found.stream()
                 .map(paymentMethodMapper::paymentMethodToPaymentMethodDTO)
                 .collect(Collectors.toList());
         return ResponseEntity.ok(paymentMethods);
@@ -33,11 +41,11 @@ public class PaymentMethodController {
 
     // Get payment method by id
     @GetMapping("/{paymentMethodId}")
-    public ResponseEntity<?> getPaymentMethod(@PathVariable Integer paymentMethodId) {
-        PaymentMethodDTO paymentMethod = paymentMethodMapper.paymentMethodToPaymentMethodDTO(
-                paymentMethodService.getPaymentMethodById(paymentMethodId)
-        );
-        return ResponseEntity.ok(paymentMethod);
+    public ResponseEntity<?> getPaymentMethod(@PathVariable Integer paymentMethodId, WebRequest webRequest) {
+        PaymentMethod paymentMethod = paymentMethodService.getPaymentMethodById(paymentMethodId);
+        if (webRequest.checkNotModified(ETags.of(paymentMethod.getVersion())))
+            return null;
+        return ResponseEntity.ok(paymentMethodMapper.paymentMethodToPaymentMethodDTO(paymentMethod));
     }
 
     // Create a new payment method for a user
@@ -50,6 +58,18 @@ public class PaymentMethodController {
                 .body(paymentMethodMapper.paymentMethodToPaymentMethodDTO(createdPaymentMethod));
     }
 
+    // Create many payment methods for a user in one request; the response holds one result per item, in request order
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchResultDTO<PaymentMethodDTO>>> createPaymentMethods(
+            @PathVariable String userId, @RequestBody List<PaymentMethodDTO> paymentMethodDTOs) {
+        List<PaymentMethod> paymentMethods = paymentMethodDTOs.stream()
+                .map(paymentMethodMapper::paymentMethodDTOToPaymentMethod)
+                .collect(Collectors.toList());
+        List<BatchResultDTO<PaymentMethodDTO>> results = paymentMethodService.createPaymentMethods(userId, paymentMethods).stream()
+                .map(result -> result.map(paymentMethodMapper::paymentMethodToPaymentMethodDTO))
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(results);
+    }
 
     // Update an existing payment method
     @PutMapping("/{paymentMethodId}")
@@ -63,10 +83,28 @@ public class PaymentMethodController {
         return ResponseEntity.ok(paymentMethodMapper.paymentMethodToPaymentMethodDTO(updatedPaymentMethod));
     }
 
+    // Partial update guarded by If-Match: 204 with the new ETag, 409 when the payment method changed since it was read
+    @PatchMapping("/{paymentMethodId}")
+    public ResponseEntity<Void> patchPaymentMethod(
+            @PathVariable String userId,
+            @PathVariable Integer paymentMethodId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody PaymentMethodDTO paymentMethodDTO) {
+        long version = paymentMethodService.patchPaymentMethod(userId, paymentMethodId, ETags.version(ifMatch),
+                paymentMethodMapper.paymentMethodDTOToPaymentMethod(paymentMethodDTO));
+        return ResponseEntity.noContent().eTag(ETags.of(version)).build();
+    }
+
     // Delete a payment method
     @DeleteMapping("/{paymentMethodId}")
     public ResponseEntity<?> deletePaymentMethod(@PathVariable String userId, @PathVariable Integer paymentMethodId) {
         paymentMethodService.deletePaymentMethod(userId, paymentMethodId);
         return ResponseEntity.noContent().build();
     }
+
+    // Delete many payment methods of a user in one statement, e.g. DELETE ...?ids=1,2,3
+    @DeleteMapping
+    public ResponseEntity<DeleteResultDTO> deletePaymentMethods(@PathVariable String userId, @RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(paymentMethodService.deletePaymentMethods(userId, ids));
+    }
 }
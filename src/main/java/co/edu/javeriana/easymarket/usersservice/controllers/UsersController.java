@@ -1,14 +1,31 @@
 package co.edu.javeriana.easymarket.usersservice.controllers;
 
+import co.edu.javeriana.easymarket.usersservice.dtos.BatchResultDTO;
+import co.edu.javeriana.easymarket.usersservice.dtos.PageDTO;
 import co.edu.javeriana.easymarket.usersservice.dtos.UserDTO;
+import co.edu.javeriana.easymarket.usersservice.dtos.UsersLookupDTO;
 import co.edu.javeriana.easymarket.usersservice.mappers.UserMapper;
 import co.edu.javeriana.easymarket.usersservice.model.User;
 import co.edu.javeriana.easymarket.usersservice.services.UserService;
+import co.edu.javeriana.easymarket.usersservice.utils.ETags;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -17,29 +34,102 @@ public class UsersController {
 
     private final UserService userService;
     private final UserMapper userMapper;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor exportExecutor;
+    private final Duration exportTimeout;
 
-    public UsersController(UserService userService, UserMapper userMapper) {
+    public UsersController(UserService userService, UserMapper userMapper, ObjectMapper objectMapper,
+                           @Qualifier("applicationTaskExecutor") TaskExecutor exportExecutor,
+                           @Value("${users.export.timeout:30m}") Duration exportTimeout) {
         this.userService = userService;
         this.userMapper = userMapper;
+        this.objectMapper = objectMapper;
+        this.exportExecutor = exportExecutor;
+        this.exportTimeout = exportTimeout;
     }
 
+    // Keyset page of users; the total is only counted (an extra query over every match) with count=true
     @GetMapping
-    public ResponseEntity<List<UserDTO>> getUsers(
+    public ResponseEntity<PageDTO<UserDTO>> getUsers(
             @RequestParam(value = "email", required = false) String email,
             @RequestParam(value = "fullname", required = false) String fullname,
             @RequestParam(value = "username", required = false) String username,
             @RequestParam(value = "rol", required = false) String rol,
-            @RequestParam(value = "deleted", required = false, defaultValue = "false") boolean deleted
+            @RequestParam(value = "deleted", required = false, defaultValue = "false") boolean deleted,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "count", required = false, defaultValue = "false") boolean count
     ) {
-        List<UserDTO> users = userService.getUsers(fullname, username, email, rol, deleted).stream()
+        PageDTO<UserDTO> users = userService.getUsers(fullname, username, email, rol, deleted, cursor, limit, count)
+                .map(userMapper::userToUserDTO);
+        return ResponseEntity.ok(users);
+    }
+
+    // Resolve many users by id in one call, e.g. GET /api/v1/users?ids=a,b,c
+    @GetMapping(params = "ids")
+    public ResponseEntity<UsersLookupDTO> getUsersByIds(@RequestParam("ids") List<String> ids) {
+        return ResponseEntity.ok(lookupUsers(ids));
+    }
+
+    // Same as the ids query parameter, for id sets too large for a URL
+    @PostMapping("/lookup")
+    public ResponseEntity<UsersLookupDTO> lookupUsersByIds(@RequestBody List<String> ids) {
+        return ResponseEntity.ok(lookupUsers(ids));
+    }
+
+    private UsersLookupDTO lookupUsers(List<String> ids) {
+        Map<String, User> found = userService.getUsersByIds(ids);
+        List<UserDTO> users = found.values().stream()
                 .map(userMapper::userToUserDTO)
                 .collect(Collectors.toList());
-        return ResponseEntity.ok(users);
+        List<String> missing = ids.stream()
+                .distinct()
+                .filter(id -> !found.containsKey(id))
+                .collect(Collectors.toList());
+        return new UsersLookupDTO(users, missing);
+    }
+
+    // Stream users as NDJSON; rows are written and flushed as they are read from the database.
+    // The export has its own timeout (users.export.timeout) instead of the global async request
+    // timeout, which stays short for every other request
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResponseBodyEmitter> exportUsers(
+            @RequestParam(value = "email", required = false) String email,
+            @RequestParam(value = "fullname", required = false) String fullname,
+            @RequestParam(value = "username", required = false) String username,
+            @RequestParam(value = "rol", required = false) String rol,
+            @RequestParam(value = "deleted", required = false, defaultValue = "false") boolean deleted
+    ) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(exportTimeout.toMillis());
+        exportExecutor.execute(() -> {
+            try {
+                // One buffer reused for every row; a send after a timeout or disconnect fails and ends the stream
+                ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+                userService.exportUsers(fullname, username, email, rol, deleted, user -> {
+                    try {
+                        line.reset();
+                        objectMapper.writeValue(line, userMapper.userToUserDTO(user));
+                        line.write('\n');
+                        emitter.send(line.toByteArray(), MediaType.APPLICATION_NDJSON);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                emitter.complete();
+            } catch (RuntimeException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(emitter);
     }
 
+    // Cached users answer If-None-Match without touching the database; a matching version is
+    // answered with 304 before the user is mapped
     @GetMapping("/{id}")
-    public ResponseEntity<UserDTO> getUser(@PathVariable String id) {
+    public ResponseEntity<UserDTO> getUser(@PathVariable String id, WebRequest webRequest) {
         User user = userService.getUser(id);
+        if (webRequest.checkNotModified(ETags.of(user.getVersion())))
+            return null;
         return ResponseEntity.ok(userMapper.userToUserDTO(user));
     }
 
@@ -50,6 +140,18 @@ public class UsersController {
         return ResponseEntity.ok(userMapper.userToUserDTO(user));
     }
 
+    // Create many users in one request; the response holds one result per item, in request order
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchResultDTO<UserDTO>>> createUsers(@RequestBody List<UserDTO> userDTOs) {
+        List<User> users = userDTOs.stream()
+                .map(userMapper::userDTOToUser)
+                .collect(Collectors.toList());
+        List<BatchResultDTO<UserDTO>> results = userService.createUsers(users).stream()
+                .map(result -> result.map(userMapper::userToUserDTO))
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(results);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<UserDTO> updateUser(@PathVariable String id, @RequestBody UserDTO userDTO) {
         User user = userMapper.userDTOToUser(userDTO);
@@ -57,6 +159,15 @@ public class UsersController {
         return ResponseEntity.ok(userMapper.userToUserDTO(user));
     }
 
+    // Partial update guarded by If-Match: 204 with the new ETag, 409 when the user changed since it was read
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchUser(@PathVariable String id,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                          @RequestBody UserDTO userDTO) {
+        long version = userService.patchUser(id, ETags.version(ifMatch), userMapper.userDTOToUser(userDTO));
+        return ResponseEntity.noContent().eTag(ETags.of(version)).build();
+    }
+
     @PutMapping("/{id}/delete")
     public ResponseEntity<UserDTO> deleteUser(@PathVariable String id) {
         User user = userService.deleteUser(id);
@@ -0,0 +1,26 @@
+package co.edu.javeriana.easymarket.usersservice.diagnostics;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+// /actuator/queries: per repository method statement counts, rows and latency, plus the slowest
+// recent statements. DELETE clears the collected data.
+@Endpoint(id = "queries")
+public class QueriesEndpoint {
+    private final QueryDiagnostics queryDiagnostics;
+
+    public QueriesEndpoint(QueryDiagnostics queryDiagnostics) {
+        this.queryDiagnostics = queryDiagnostics;
+    }
+
+    @ReadOperation
+    public QueryDiagnostics.Report queries() {
+        return queryDiagnostics.report();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        queryDiagnostics.reset();
+    }
+}
@@ -0,0 +1,171 @@
+package co.edu.javeriana.easymarket.usersservice.diagnostics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Collects the JDBC statements run by each repository method: how many, how many rows they
+// fetched and how long they took (p50/p99 over the most recent executions). Statements slower than
+// the threshold are logged with the controller method that caused them and kept in a ring buffer.
+// Statements outside a repository call, such as the flush at commit, are grouped as "unattributed".
+public class QueryDiagnostics {
+    private static final Logger log = LoggerFactory.getLogger(QueryDiagnostics.class);
+    static final String UNATTRIBUTED = "unattributed";
+
+    private final Duration slowThreshold;
+    private final int sampleSize;
+    private final Map<String, MethodStats> methods = new ConcurrentHashMap<>();
+    private final SlowStatement[] slowest;
+    private final AtomicLong slowCount = new AtomicLong();
+    private final ThreadLocal<String> currentMethod = new ThreadLocal<>();
+
+    public QueryDiagnostics(Duration slowThreshold, int sampleSize, int slowBufferSize) {
+        this.slowThreshold = slowThreshold;
+        this.sampleSize = sampleSize;
+        this.slowest = new SlowStatement[slowBufferSize];
+    }
+
+    // Attributes the statements run by the call to the repository method; nested repository calls
+    // stay attributed to the outermost one
+    public <T> T withinRepositoryMethod(String method, RepositoryCall<T> call) throws Throwable {
+        if (currentMethod.get() != null)
+            return call.proceed();
+        currentMethod.set(method);
+        try {
+            methods.computeIfAbsent(method, key -> new MethodStats(sampleSize)).invocations.increment();
+            return call.proceed();
+        } finally {
+            currentMethod.remove();
+        }
+    }
+
+    // Records one executed statement; the returned execution counts the rows read from its results
+    public Execution record(String sql, String parameters, long nanos) {
+        String method = currentMethod.get() != null ? currentMethod.get() : UNATTRIBUTED;
+        MethodStats stats = methods.computeIfAbsent(method, key -> new MethodStats(sampleSize));
+        stats.record(nanos);
+
+        SlowStatement slow = null;
+        if (nanos >= slowThreshold.toNanos()) {
+            String handler = currentHandler();
+            slow = new SlowStatement(method, handler, sql, parameters, nanos / 1_000_000.0, Instant.now());
+            slowest[(int) (slowCount.getAndIncrement() % slowest.length)] = slow;
+            log.warn("Slow query ({} ms) in {} from {}: {} {}", nanos / 1_000_000, method, handler, sql, parameters);
+        }
+        return new Execution(stats, slow);
+    }
+
+    public Report report() {
+        Map<String, MethodReport> report = new TreeMap<>();
+        methods.forEach((method, stats) -> report.put(method, stats.report()));
+        List<SlowStatement> slow = new ArrayList<>();
+        for (SlowStatement statement : slowest.clone()) {
+            if (statement != null)
+                slow.add(statement);
+        }
+        slow.sort(Comparator.comparingDouble(SlowStatement::timeMs).reversed());
+        return new Report(slowThreshold.toMillis(), report, slow);
+    }
+
+    public void reset() {
+        methods.clear();
+        Arrays.fill(slowest, null);
+    }
+
+    // The controller method handling the current request, when there is one on this thread
+    private static String currentHandler() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        Object handler = request == null ? null
+                : request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (handler instanceof HandlerMethod method)
+            return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        return "-";
+    }
+
+    public interface RepositoryCall<T> {
+        T proceed() throws Throwable;
+    }
+
+    public static final class Execution {
+        private final MethodStats stats;
+        private final SlowStatement slow;
+
+        private Execution(MethodStats stats, SlowStatement slow) {
+            this.stats = stats;
+            this.slow = slow;
+        }
+
+        void rowFetched() {
+            stats.rows.increment();
+            if (slow != null)
+                slow.rows.incrementAndGet();
+        }
+    }
+
+    private static final class MethodStats {
+        final LongAdder invocations = new LongAdder();
+        final LongAdder statements = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        // Most recent statement times, overwritten in a ring
+        final long[] samples;
+        final AtomicLong sampleCount = new AtomicLong();
+
+        MethodStats(int sampleSize) {
+            this.samples = new long[sampleSize];
+        }
+
+        void record(long nanos) {
+            statements.increment();
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            samples[(int) (sampleCount.getAndIncrement() % samples.length)] = nanos;
+        }
+
+        MethodReport report() {
+            long[] sorted = Arrays.copyOf(samples, (int) Math.min(sampleCount.get(), samples.length));
+            Arrays.sort(sorted);
+            long invocationCount = invocations.sum();
+            long statementCount = statements.sum();
+            return new MethodReport(invocationCount, statementCount,
+                    invocationCount == 0 ? null : (double) statementCount / invocationCount, rows.sum(),
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), maxNanos.get() / 1_000_000.0);
+        }
+
+        private static Double percentile(long[] sorted, double p) {
+            if (sorted.length == 0)
+                return null;
+            return sorted[Math.max(0, (int) Math.ceil(p * sorted.length) - 1)] / 1_000_000.0;
+        }
+    }
+
+    // "statementsPerInvocation" is null for statements that did not run inside a repository method
+    public record MethodReport(long invocations, long statements, Double statementsPerInvocation, long rowsFetched,
+                               Double p50Ms, Double p99Ms, double maxMs) {
+    }
+
+    public record Report(long slowThresholdMs, Map<String, MethodReport> repositoryMethods, List<SlowStatement> slowest) {
+    }
+
+    // "parameters" is the shape of the bind values (their types), never the values themselves
+    public record SlowStatement(String repositoryMethod, String handler, String sql, String parameters, double timeMs,
+                                Instant at, AtomicLong rows) {
+        SlowStatement(String repositoryMethod, String handler, String sql, String parameters, double timeMs, Instant at) {
+            this(repositoryMethod, handler, sql, parameters, timeMs, at, new AtomicLong());
+        }
+    }
+}
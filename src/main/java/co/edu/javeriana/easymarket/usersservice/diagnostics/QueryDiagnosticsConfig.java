@@ -0,0 +1,63 @@
+package co.edu.javeriana.easymarket.usersservice.diagnostics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.function.SingletonSupplier;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+// Wires QueryDiagnostics in: the DataSource is wrapped to observe statements and every repository
+// proxy gets an interceptor that attributes them to the repository method being called
+// Off unless diagnostics.queries.enabled is set: it wraps every statement and exposes SQL text
+@Configuration
+@ConditionalOnProperty(prefix = "diagnostics.queries", name = "enabled", havingValue = "true", matchIfMissing = false)
+public class QueryDiagnosticsConfig {
+
+    @Bean
+    public QueryDiagnostics queryDiagnostics(@Value("${diagnostics.queries.slow-threshold:200ms}") Duration slowThreshold,
+                                             @Value("${diagnostics.queries.sample-size:1024}") int sampleSize,
+                                             @Value("${diagnostics.queries.slow-buffer-size:50}") int slowBufferSize) {
+        return new QueryDiagnostics(slowThreshold, sampleSize, slowBufferSize);
+    }
+
+    @Bean
+    public QueriesEndpoint queriesEndpoint(QueryDiagnostics queryDiagnostics) {
+        return new QueriesEndpoint(queryDiagnostics);
+    }
+
+    // Static and lazy so the post-processor does not force the diagnostics bean to be created early
+    @Bean
+    public static BeanPostProcessor queryDiagnosticsPostProcessor(ObjectProvider<QueryDiagnostics> queryDiagnostics) {
+        Supplier<QueryDiagnostics> diagnostics = SingletonSupplier.of(queryDiagnostics::getObject);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactory)
+                    repositoryFactory.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repository) -> proxyFactory.addAdvice(interceptor(
+                                    diagnostics, repository.getRepositoryInterface().getSimpleName()))));
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof QueryDiagnosticsDataSource))
+                    return new QueryDiagnosticsDataSource(dataSource, diagnostics.get());
+                return bean;
+            }
+        };
+    }
+
+    private static MethodInterceptor interceptor(Supplier<QueryDiagnostics> queryDiagnostics, String repository) {
+        return invocation -> queryDiagnostics.get()
+                .withinRepositoryMethod(repository + "." + invocation.getMethod().getName(), invocation::proceed);
+    }
+}
@@ -0,0 +1,133 @@
+package co.edu.javeriana.easymarket.usersservice.diagnostics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Wraps connections so every executed statement is timed and reported to QueryDiagnostics together
+// with the shape of its bind parameters, and every row read from its results is counted
+class QueryDiagnosticsDataSource extends DelegatingDataSource {
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final QueryDiagnostics diagnostics;
+
+    QueryDiagnosticsDataSource(DataSource target, QueryDiagnostics diagnostics) {
+        super(target);
+        this.diagnostics = diagnostics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    private Connection connection(Connection connection) {
+        return proxy(Connection.class, connection, (method, args) -> {
+            Object result = invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> statement(Statement.class, (Statement) result, null);
+                case "prepareStatement" -> statement(PreparedStatement.class, (Statement) result, (String) args[0]);
+                case "prepareCall" -> statement(CallableStatement.class, (Statement) result, (String) args[0]);
+                default -> result;
+            };
+        });
+    }
+
+    private <S extends Statement> S statement(Class<S> type, Statement statement, String preparedSql) {
+        List<String> parameters = new ArrayList<>();
+        int[] batched = {0};
+        QueryDiagnostics.Execution[] last = {null};
+        return proxy(type, statement, (method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bind(parameters, index, name.equals("setNull") || args[1] == null ? "null" : args[1].getClass().getSimpleName());
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.equals("addBatch")) {
+                batched[0]++;
+            }
+
+            if (!EXECUTE_METHODS.contains(name)) {
+                Object result = invoke(statement, method, args);
+                return name.equals("getResultSet") && result != null ? resultSet((ResultSet) result, last[0]) : result;
+            }
+
+            String sql = preparedSql != null ? preparedSql : args != null && args.length > 0 ? (String) args[0] : null;
+            long start = System.nanoTime();
+            try {
+                Object result = invoke(statement, method, args);
+                last[0] = diagnostics.record(sql, shape(parameters, batched[0]), System.nanoTime() - start);
+                return result instanceof ResultSet resultSet ? resultSet(resultSet, last[0]) : result;
+            } finally {
+                if (name.startsWith("executeBatch") || name.startsWith("executeLargeBatch")) {
+                    batched[0] = 0;
+                    parameters.clear();
+                }
+            }
+        });
+    }
+
+    private ResultSet resultSet(ResultSet resultSet, QueryDiagnostics.Execution execution) {
+        if (execution == null)
+            return resultSet;
+        return proxy(ResultSet.class, resultSet, (method, args) -> {
+            Object result = invoke(resultSet, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result))
+                execution.rowFetched();
+            return result;
+        });
+    }
+
+    private static void bind(List<String> parameters, int index, String type) {
+        while (parameters.size() < index)
+            parameters.add("?");
+        parameters.set(index - 1, type);
+    }
+
+    private static String shape(List<String> parameters, int batched) {
+        String shape = "(" + String.join(", ", parameters) + ")";
+        return batched > 0 ? "batch of " + batched + " " + shape : shape;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private interface Handler {
+        Object handle(Method method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, Handler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            // Unwrapping to the driver's class must still work, e.g. for the PostgreSQL extensions
+            if (method.getName().equals("unwrap") || method.getName().equals("isWrapperFor"))
+                return invoke(target, method, args);
+            return handler.handle(method, args);
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+}
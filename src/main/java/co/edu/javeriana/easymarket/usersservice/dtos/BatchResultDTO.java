@@ -0,0 +1,11 @@
+package co.edu.javeriana.easymarket.usersservice.dtos;
+
+import java.util.function.Function;
+
+// Outcome of one item of a bulk request: "index" is its position in the request body,
+// "status" an HTTP-like code, "item" the stored resource when it succeeded
+public record BatchResultDTO<T>(int index, int status, String message, T item) {
+    public <R> BatchResultDTO<R> map(Function<? super T, ? extends R> mapper) {
+        return new BatchResultDTO<>(index, status, message, item == null ? null : mapper.apply(item));
+    }
+}
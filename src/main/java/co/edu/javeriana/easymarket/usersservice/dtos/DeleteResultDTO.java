@@ -0,0 +1,6 @@
+package co.edu.javeriana.easymarket.usersservice.dtos;
+
+// Outcome of a bulk delete: distinct ids "requested" and rows actually "deleted"; ids that did not
+// exist or belong to another user account for the difference
+public record DeleteResultDTO(int requested, int deleted) {
+}
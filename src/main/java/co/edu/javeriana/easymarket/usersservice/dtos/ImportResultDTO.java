@@ -0,0 +1,11 @@
+package co.edu.javeriana.easymarket.usersservice.dtos;
+
+import java.util.List;
+
+// Outcome of a streaming import: "lines" read (header and blank lines included), rows "imported" and
+// "failed". "errors" lists the failed lines in order, capped so a bad file cannot grow the response
+// without bound; "failed" keeps counting past the cap.
+public record ImportResultDTO(long lines, long imported, long failed, List<LineError> errors) {
+    public record LineError(long line, String message) {
+    }
+}
@@ -0,0 +1,8 @@
+package co.edu.javeriana.easymarket.usersservice.dtos;
+
+import java.math.BigDecimal;
+
+// Address found by a proximity search, with the owner and the great-circle distance to the search point
+public record NearbyAddressDTO(Integer id, String userId, String name, String address, String details,
+                               BigDecimal latitude, BigDecimal longitude, double distanceKm) {
+}
@@ -0,0 +1,12 @@
+package co.edu.javeriana.easymarket.usersservice.dtos;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Keyset page: "next" is an opaque cursor (null on the last page), "total" is null when the count was suppressed
+public record PageDTO<T>(List<T> items, String next, Long total) {
+    public <R> PageDTO<R> map(Function<? super T, ? extends R> mapper) {
+        List<R> mapped = items.stream().<R>map(mapper).toList();
+        return new PageDTO<>(mapped, next, total);
+    }
+}
@@ -0,0 +1,7 @@
+package co.edu.javeriana.easymarket.usersservice.dtos;
+
+import java.util.List;
+
+// Users found for a multi-get, in request order, plus the requested ids that do not exist or are deleted
+public record UsersLookupDTO(List<UserDTO> users, List<String> missing) {
+}
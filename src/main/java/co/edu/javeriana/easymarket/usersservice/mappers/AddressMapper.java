@@ -2,22 +2,34 @@ package co.edu.javeriana.easymarket.usersservice.mappers;
 
 import co.edu.javeriana.easymarket.usersservice.dtos.AddressDTO;
 import co.edu.javeriana.easymarket.usersservice.model.Address;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
 @Component
 public class AddressMapper {
-    private final ModelMapper modelMapper;
-
-    public AddressMapper(ModelMapper modelMapper) {
-        this.modelMapper = modelMapper;
-    }
 
     public AddressDTO addressToAddressDTO(Address address) {
-        return modelMapper.map(address, AddressDTO.class);
+        if (address == null)
+            return null;
+        AddressDTO addressDTO = new AddressDTO();
+        addressDTO.setId(address.getId());
+        addressDTO.setName(address.getName());
+        addressDTO.setAddress(address.getAddress());
+        addressDTO.setDetails(address.getDetails());
+        addressDTO.setLatitude(address.getLatitude());
+        addressDTO.setLongitude(address.getLongitude());
+        return addressDTO;
     }
 
     public Address addressDTOToAddress(AddressDTO addressDTO) {
-        return modelMapper.map(addressDTO, Address.class);
+        if (addressDTO == null)
+            return null;
+        Address address = new Address();
+        address.setId(addressDTO.getId());
+        address.setName(addressDTO.getName());
+        address.setAddress(addressDTO.getAddress());
+        address.setDetails(addressDTO.getDetails());
+        address.setLatitude(addressDTO.getLatitude());
+        address.setLongitude(addressDTO.getLongitude());
+        return address;
     }
 }
@@ -2,22 +2,46 @@ package co.edu.javeriana.easymarket.usersservice.mappers;
 
 import co.edu.javeriana.easymarket.usersservice.dtos.PaymentMethodDTO;
 import co.edu.javeriana.easymarket.usersservice.model.PaymentMethod;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
 @Component
 public class PaymentMethodMapper {
-    private final ModelMapper modelMapper;
-
-    public PaymentMethodMapper(ModelMapper modelMapper) {
-        this.modelMapper = modelMapper;
-    }
 
     public PaymentMethodDTO paymentMethodToPaymentMethodDTO(PaymentMethod paymentMethod) {
-        return modelMapper.map(paymentMethod, PaymentMethodDTO.class);
+        if (paymentMethod == null)
+            return null;
+        PaymentMethodDTO paymentMethodDTO = new PaymentMethodDTO();
+        paymentMethodDTO.setId(paymentMethod.getId());
+        paymentMethodDTO.setCardNumber(paymentMethod.getCardNumber());
+        paymentMethodDTO.setEmail(paymentMethod.getEmail());
+        paymentMethodDTO.setPhone(paymentMethod.getPhone());
+        paymentMethodDTO.setExpiryDate(paymentMethod.getExpiryDate());
+        paymentMethodDTO.setCardHolderName(paymentMethod.getCardHolderName());
+        paymentMethodDTO.setCity(paymentMethod.getCity());
+        paymentMethodDTO.setFirstLine(paymentMethod.getFirstLine());
+        paymentMethodDTO.setSecondLine(paymentMethod.getSecondLine());
+        paymentMethodDTO.setCountry(paymentMethod.getCountry());
+        paymentMethodDTO.setPostalCode(paymentMethod.getPostalCode());
+        paymentMethodDTO.setStateName(paymentMethod.getStateName());
+        return paymentMethodDTO;
     }
 
     public PaymentMethod paymentMethodDTOToPaymentMethod(PaymentMethodDTO paymentMethodDTO) {
-        return modelMapper.map(paymentMethodDTO, PaymentMethod.class);
+        if (paymentMethodDTO == null)
+            return null;
+        PaymentMethod paymentMethod = new PaymentMethod();
+        paymentMethod.setId(paymentMethodDTO.getId());
+        paymentMethod.setCardNumber(paymentMethodDTO.getCardNumber());
+        paymentMethod.setEmail(paymentMethodDTO.getEmail());
+        paymentMethod.setPhone(paymentMethodDTO.getPhone());
+        paymentMethod.setExpiryDate(paymentMethodDTO.getExpiryDate());
+        paymentMethod.setCardHolderName(paymentMethodDTO.getCardHolderName());
+        paymentMethod.setCity(paymentMethodDTO.getCity());
+        paymentMethod.setFirstLine(paymentMethodDTO.getFirstLine());
+        paymentMethod.setSecondLine(paymentMethodDTO.getSecondLine());
+        paymentMethod.setCountry(paymentMethodDTO.getCountry());
+        paymentMethod.setPostalCode(paymentMethodDTO.getPostalCode());
+        paymentMethod.setStateName(paymentMethodDTO.getStateName());
+        return paymentMethod;
     }
 }
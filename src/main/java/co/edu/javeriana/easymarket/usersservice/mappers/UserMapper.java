@@ -2,22 +2,32 @@ package co.edu.javeriana.easymarket.usersservice.mappers;
 
 import co.edu.javeriana.easymarket.usersservice.dtos.UserDTO;
 import co.edu.javeriana.easymarket.usersservice.model.User;
-import org.modelmapper.ModelMapper;
 import org.springframework.stereotype.Component;
 
 @Component
 public class UserMapper {
-    private final ModelMapper modelMapper;
-
-    public UserMapper(ModelMapper modelMapper) {
-        this.modelMapper = modelMapper;
-    }
 
     public UserDTO userToUserDTO(User user) {
-        return modelMapper.map(user, UserDTO.class);
+        if (user == null)
+            return null;
+        UserDTO userDTO = new UserDTO();
+        userDTO.setId(user.getId());
+        userDTO.setUsername(user.getUsername());
+        userDTO.setFullname(user.getFullname());
+        userDTO.setEmail(user.getEmail());
+        userDTO.setRol(user.getRol());
+        return userDTO;
     }
 
     public User userDTOToUser(UserDTO userDTO) {
-        return modelMapper.map(userDTO, User.class);
+        if (userDTO == null)
+            return null;
+        User user = new User();
+        user.setId(userDTO.getId());
+        user.setUsername(userDTO.getUsername());
+        user.setFullname(userDTO.getFullname());
+        user.setEmail(userDTO.getEmail());
+        user.setRol(userDTO.getRol());
+        return user;
     }
 }
@@ -1,5 +1,6 @@
 package co.edu.javeriana.easymarket.usersservice.model;
 
+import co.edu.javeriana.easymarket.usersservice.utils.GeoGrid;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -13,7 +14,7 @@ import java.math.BigDecimal;
 public class Address {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "address_id_gen")
-    @SequenceGenerator(name = "address_id_gen", sequenceName = "address_id_address_seq", allocationSize = 1)
+    @SequenceGenerator(name = "address_id_gen", sequenceName = "address_id_address_seq", allocationSize = 50)
     @Column(name = "id_address", nullable = false)
     private Integer id;
 
@@ -34,4 +35,18 @@ public class Address {
 
     @Column(name = "user_id", nullable = false, length = 36)
     private String userId;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    // Grid cell of the coordinates for proximity search, recomputed on every insert and update
+    @Column(name = "grid_cell")
+    private Long gridCell;
+
+    @PrePersist
+    @PreUpdate
+    void updateGridCell() {
+        gridCell = latitude == null || longitude == null ? null : GeoGrid.cell(latitude, longitude);
+    }
 }
\ No newline at end of file
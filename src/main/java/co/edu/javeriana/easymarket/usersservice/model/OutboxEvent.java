@@ -0,0 +1,42 @@
+package co.edu.javeriana.easymarket.usersservice.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// Pending admin notification, written in the same transaction as the user change it describes
+@Getter
+@Setter
+@Entity
+@Table(name = "notification_outbox")
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_outbox_id_gen")
+    @SequenceGenerator(name = "notification_outbox_id_gen", sequenceName = "notification_outbox_id_seq", allocationSize = 50)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 30)
+    private OutboxEventType type;
+
+    @Column(name = "user_id", nullable = false, length = 36)
+    private String userId;
+
+    @Column(name = "fullname", length = 100)
+    private String fullname;
+
+    @Column(name = "email", length = 45)
+    private String email;
+
+    @Column(name = "rol", length = 45)
+    private String rol;
+
+    @Column(name = "previous_rol", length = 45)
+    private String previousRol;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,9 @@
+package co.edu.javeriana.easymarket.usersservice.model;
+
+public enum OutboxEventType {
+    USER_CREATED,
+    USER_DELETED,
+    USER_RESTORED,
+    USER_PURGED,
+    USER_ROLE_CHANGED
+}
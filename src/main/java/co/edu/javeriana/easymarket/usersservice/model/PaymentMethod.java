@@ -11,7 +11,7 @@ import lombok.Setter;
 public class PaymentMethod {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_method_id_gen")
-    @SequenceGenerator(name = "payment_method_id_gen", sequenceName = "payment_method_id_payment_method_seq", allocationSize = 1)
+    @SequenceGenerator(name = "payment_method_id_gen", sequenceName = "payment_method_id_payment_method_seq", allocationSize = 50)
     @Column(name = "id_payment_method", nullable = false)
     private Integer id;
 
@@ -50,4 +50,8 @@ public class PaymentMethod {
 
     @Column(name = "user_id", nullable = false, length = 36)
     private String userId;
+
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
 }
\ No newline at end of file
@@ -4,13 +4,18 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.Setter;
 
 @Getter
 @Setter
 @Entity
-@Table(name = "\"user\"")
+@Table(name = "\"user\"", uniqueConstraints = {
+        @UniqueConstraint(name = "user_email_key", columnNames = "email"),
+        @UniqueConstraint(name = "user_username_key", columnNames = "username")
+})
 public class User {
     @Id
     @Column(name = "id", nullable = false, length = 36)
@@ -31,4 +36,9 @@ public class User {
     @Column(name = "deleted", nullable = false)
     private Boolean deleted = false;
 
+    // Incremented on every update; exposed as the ETag of the resource
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package co.edu.javeriana.easymarket.usersservice.repository;
+
+import co.edu.javeriana.easymarket.usersservice.model.Address;
+
+public interface AddressPatchRepository {
+    // Writes the non-null fields of the changes if the user's address is still at the version.
+    // Latitude and longitude must be given together so the grid cell can be recomputed.
+    int patch(Integer id, String userId, long version, Address changes);
+}
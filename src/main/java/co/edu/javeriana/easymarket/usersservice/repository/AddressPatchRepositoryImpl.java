@@ -0,0 +1,28 @@
+package co.edu.javeriana.easymarket.usersservice.repository;
+
+import co.edu.javeriana.easymarket.usersservice.model.Address;
+import co.edu.javeriana.easymarket.usersservice.utils.GeoGrid;
+import jakarta.persistence.EntityManager;
+
+class AddressPatchRepositoryImpl implements AddressPatchRepository {
+    private final EntityManager entityManager;
+
+    AddressPatchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public int patch(Integer id, String userId, long version, Address changes) {
+        boolean moved = changes.getLatitude() != null && changes.getLongitude() != null;
+        return new VersionedUpdate<>(entityManager, Address.class)
+                .set("name", changes.getName())
+                .set("address", changes.getAddress())
+                .set("details", changes.getDetails())
+                .set("latitude", changes.getLatitude())
+                .set("longitude", changes.getLongitude())
+                .set("gridCell", moved ? GeoGrid.cell(changes.getLatitude(), changes.getLongitude()) : null)
+                .where("id", id)
+                .where("userId", userId)
+                .execute(version);
+    }
+}
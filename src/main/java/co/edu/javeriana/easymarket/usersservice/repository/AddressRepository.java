@@ -2,11 +2,28 @@ package co.edu.javeriana.easymarket.usersservice.repository;
 
 import co.edu.javeriana.easymarket.usersservice.model.Address;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface AddressRepository extends JpaRepository<Address, Integer> {
+public interface AddressRepository extends JpaRepository<Address, Integer>, AddressPatchRepository {
     List<Address> findByUserId(String userId);
     Optional<Address> findByIdAndUserId(Integer id, String userId);
+    boolean existsByIdAndUserId(Integer id, String userId);
+
+    // Owner-scoped deletes in one statement, returning the number of rows removed
+    @Modifying
+    @Query("DELETE FROM Address a WHERE a.id = :id AND a.userId = :userId")
+    int deleteByIdAndUserId(Integer id, String userId);
+
+    @Modifying
+    @Query("DELETE FROM Address a WHERE a.userId = :userId AND a.id IN :ids")
+    int deleteByUserIdAndIdIn(String userId, Collection<Integer> ids);
+
+    // Candidates for a proximity search, see GeoGrid
+    List<Address> findByGridCellIn(Collection<Long> gridCells);
+    List<Address> findByGridCellBetween(Long firstCell, Long lastCell);
 }
\ No newline at end of file
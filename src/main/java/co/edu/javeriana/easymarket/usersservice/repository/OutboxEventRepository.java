@@ -0,0 +1,29 @@
+package co.edu.javeriana.easymarket.usersservice.repository;
+
+import co.edu.javeriana.easymarket.usersservice.model.OutboxEvent;
+import co.edu.javeriana.easymarket.usersservice.model.OutboxEventType;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    // Oldest pending events, locked for the draining transaction. Rows locked by another
+    // instance are skipped (lock timeout -2 = SKIP LOCKED), so relays never send the same event twice.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.type IN :types ORDER BY e.id")
+    List<OutboxEvent> findBatchForUpdate(Collection<OutboxEventType> types, Pageable pageable);
+
+    long countByTypeIn(Collection<OutboxEventType> types);
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e WHERE e.type IN :types")
+    Instant findOldestCreatedAt(Collection<OutboxEventType> types);
+}
@@ -0,0 +1,8 @@
+package co.edu.javeriana.easymarket.usersservice.repository;
+
+import co.edu.javeriana.easymarket.usersservice.model.PaymentMethod;
+
+public interface PaymentMethodPatchRepository {
+    // Writes the non-null fields of the changes if the user's payment method is still at the version
+    int patch(Integer id, String userId, long version, PaymentMethod changes);
+}
@@ -0,0 +1,31 @@
+package co.edu.javeriana.easymarket.usersservice.repository;
+
+import co.edu.javeriana.easymarket.usersservice.model.PaymentMethod;
+import jakarta.persistence.EntityManager;
+
+class PaymentMethodPatchRepositoryImpl implements PaymentMethodPatchRepository {
+    private final EntityManager entityManager;
+
+    PaymentMethodPatchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public int patch(Integer id, String userId, long version, PaymentMethod changes) {
+        return new VersionedUpdate<>(entityManager, PaymentMethod.class)
+                .set("cardNumber", changes.getCardNumber())
+                .set("email", changes.getEmail())
+                .set("phone", changes.getPhone())
+                .set("expiryDate", changes.getExpiryDate())
+                .set("cardHolderName", changes.getCardHolderName())
+                .set("city", changes.getCity())
+                .set("firstLine", changes.getFirstLine())
+                .set("secondLine", changes.getSecondLine())
+                .set("country", changes.getCountry())
+                .set("postalCode", changes.getPostalCode())
+                .set("stateName", changes.getStateName())
+                .where("id", id)
+                .where("userId", userId)
+                .execute(version);
+    }
+}
@@ -2,11 +2,23 @@ package co.edu.javeriana.easymarket.usersservice.repository;
 
 import co.edu.javeriana.easymarket.usersservice.model.PaymentMethod;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface PaymentMethodRepository extends JpaRepository<PaymentMethod, Integer> {
+public interface PaymentMethodRepository extends JpaRepository<PaymentMethod, Integer>, PaymentMethodPatchRepository {
     List<PaymentMethod> findByUserId(String userId);
     Optional<PaymentMethod> findByIdAndUserId(Integer id, String userId);
+    boolean existsByIdAndUserId(Integer id, String userId);
+
+    @Modifying
+    @Query("DELETE FROM PaymentMethod p WHERE p.id = :id AND p.userId = :userId")
+    int deleteByIdAndUserId(Integer id, String userId);
+
+    @Modifying
+    @Query("DELETE FROM PaymentMethod p WHERE p.userId = :userId AND p.id IN :ids")
+    int deleteByUserIdAndIdIn(String userId, Collection<Integer> ids);
 }
\ No newline at end of file
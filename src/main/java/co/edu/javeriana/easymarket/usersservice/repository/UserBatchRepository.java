@@ -0,0 +1,10 @@
+package co.edu.javeriana.easymarket.usersservice.repository;
+
+import co.edu.javeriana.easymarket.usersservice.model.User;
+
+import java.util.List;
+
+public interface UserBatchRepository {
+    // Insert all users with JDBC batch statements; joins the caller's transaction
+    void insertUsers(List<User> users);
+}
@@ -0,0 +1,32 @@
+package co.edu.javeriana.easymarket.usersservice.repository;
+
+import co.edu.javeriana.easymarket.usersservice.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+class UserBatchRepositoryImpl implements UserBatchRepository {
+    private static final String INSERT_USER = "INSERT INTO \"user\" (id, email, fullname, username, rol, deleted, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    UserBatchRepositoryImpl(JdbcTemplate jdbcTemplate, @Value("${users.batch.insert-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void insertUsers(List<User> users) {
+        jdbcTemplate.batchUpdate(INSERT_USER, users, batchSize, (ps, user) -> {
+            ps.setString(1, user.getId());
+            ps.setString(2, user.getEmail());
+            ps.setString(3, user.getFullname());
+            ps.setString(4, user.getUsername());
+            ps.setString(5, user.getRol());
+            ps.setBoolean(6, user.getDeleted());
+        });
+    }
+}
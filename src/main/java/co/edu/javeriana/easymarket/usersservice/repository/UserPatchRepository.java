@@ -0,0 +1,8 @@
+package co.edu.javeriana.easymarket.usersservice.repository;
+
+import co.edu.javeriana.easymarket.usersservice.model.User;
+
+public interface UserPatchRepository {
+    // Writes the non-null email, username and fullname of the changes if the user is still at the version
+    int patch(String id, long version, User changes);
+}
@@ -0,0 +1,22 @@
+package co.edu.javeriana.easymarket.usersservice.repository;
+
+import co.edu.javeriana.easymarket.usersservice.model.User;
+import jakarta.persistence.EntityManager;
+
+class UserPatchRepositoryImpl implements UserPatchRepository {
+    private final EntityManager entityManager;
+
+    UserPatchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public int patch(String id, long version, User changes) {
+        return new VersionedUpdate<>(entityManager, User.class)
+                .set("email", changes.getEmail())
+                .set("username", changes.getUsername())
+                .set("fullname", changes.getFullname())
+                .where("id", id)
+                .execute(version);
+    }
+}
@@ -1,13 +1,21 @@
 package co.edu.javeriana.easymarket.usersservice.repository;
 
 import co.edu.javeriana.easymarket.usersservice.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface UserRepository extends JpaRepository<User, String> {
+public interface UserRepository extends JpaRepository<User, String>, UserBatchRepository, UserPatchRepository {
     @Query("SELECT u FROM User u WHERE " +
             "(:fullname IS NULL OR u.fullname LIKE %:fullname%) AND " +
             "(:username IS NULL OR u.username LIKE %:username%) AND " +
@@ -15,7 +23,56 @@ public interface UserRepository extends JpaRepository<User, String> {
             "(:rol IS NULL OR u.rol = :rol) AND" +
             "(:deleted IS NULL OR u.deleted = :deleted)")
     List<User> findUsersByFilters(String fullname, String username, String email, String rol, Boolean deleted);
+
+    // Keyset page ordered by primary key: only rows after the cursor id are scanned.
+    // Substring filters are case-insensitive and served by the trigram indexes on PostgreSQL; their
+    // values must have the LIKE wildcards escaped with '!' (UserService.likeLiteral).
+    @Query("SELECT u FROM User u WHERE " +
+            "(:after IS NULL OR u.id > :after) AND " +
+            "(:fullname IS NULL OR LOWER(u.fullname) LIKE LOWER(CONCAT('%', :fullname, '%')) ESCAPE '!') AND " +
+            "(:username IS NULL OR LOWER(u.username) LIKE LOWER(CONCAT('%', :username, '%')) ESCAPE '!') AND " +
+            "(:email IS NULL OR LOWER(u.email) LIKE LOWER(CONCAT('%', :email, '%')) ESCAPE '!') AND " +
+            "(:rol IS NULL OR u.rol = :rol) AND " +
+            "(:deleted IS NULL OR u.deleted = :deleted) " +
+            "ORDER BY u.id")
+    List<User> findUsersPageByFilters(String fullname, String username, String email, String rol, Boolean deleted,
+                                      String after, Pageable pageable);
+
+    @Query("SELECT COUNT(u) FROM User u WHERE " +
+            "(:fullname IS NULL OR LOWER(u.fullname) LIKE LOWER(CONCAT('%', :fullname, '%')) ESCAPE '!') AND " +
+            "(:username IS NULL OR LOWER(u.username) LIKE LOWER(CONCAT('%', :username, '%')) ESCAPE '!') AND " +
+            "(:email IS NULL OR LOWER(u.email) LIKE LOWER(CONCAT('%', :email, '%')) ESCAPE '!') AND " +
+            "(:rol IS NULL OR u.rol = :rol) AND " +
+            "(:deleted IS NULL OR u.deleted = :deleted)")
+    long countUsersByFilters(String fullname, String username, String email, String rol, Boolean deleted);
+
+    // Forward-only cursor for exports; must be consumed inside a read-only transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT u FROM User u WHERE " +
+            "(:fullname IS NULL OR LOWER(u.fullname) LIKE LOWER(CONCAT('%', :fullname, '%')) ESCAPE '!') AND " +
+            "(:username IS NULL OR LOWER(u.username) LIKE LOWER(CONCAT('%', :username, '%')) ESCAPE '!') AND " +
+            "(:email IS NULL OR LOWER(u.email) LIKE LOWER(CONCAT('%', :email, '%')) ESCAPE '!') AND " +
+            "(:rol IS NULL OR u.rol = :rol) AND " +
+            "(:deleted IS NULL OR u.deleted = :deleted) " +
+            "ORDER BY u.id")
+    Stream<User> streamUsersByFilters(String fullname, String username, String email, String rol, Boolean deleted);
+
+    // Plain insert in one round trip; duplicates are rejected by the primary key and the unique
+    // constraints on email and username instead of being checked beforehand
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO \"user\" (id, email, fullname, username, rol, deleted, version) " +
+            "VALUES (:id, :email, :fullname, :username, :rol, :deleted, 0)", nativeQuery = true)
+    int insertUser(String id, String email, String fullname, String username, String rol, boolean deleted);
+
+    // Every existing user that clashes with any of the given ids, emails or usernames
+    @Query("SELECT u FROM User u WHERE u.id IN :ids OR u.email IN :emails OR u.username IN :usernames")
+    List<User> findConflicting(Collection<String> ids, Collection<String> emails, Collection<String> usernames);
+
     Optional<User> findByEmail(String email);
     Optional<User> findByUsername(String username);
 
-}
\ No newline at end of file
+}
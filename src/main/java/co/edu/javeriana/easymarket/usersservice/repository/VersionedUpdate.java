@@ -0,0 +1,52 @@
+package co.edu.javeriana.easymarket.usersservice.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One UPDATE statement that writes only the supplied attributes and increments the @Version
+// attribute, matched on the keys and on the version the client last read. Nothing is loaded first,
+// so the persistence context is neither read nor updated.
+final class VersionedUpdate<T> {
+    private static final String VERSION = "version";
+
+    private final EntityManager entityManager;
+    private final CriteriaBuilder builder;
+    private final CriteriaUpdate<T> update;
+    private final Root<T> root;
+    private final List<Predicate> predicates = new ArrayList<>();
+
+    VersionedUpdate(EntityManager entityManager, Class<T> type) {
+        this.entityManager = entityManager;
+        this.builder = entityManager.getCriteriaBuilder();
+        this.update = builder.createCriteriaUpdate(type);
+        this.root = update.from(type);
+    }
+
+    // A null value leaves the column unchanged
+    VersionedUpdate<T> set(String attribute, Object value) {
+        if (value != null)
+            update.set(attribute, value);
+        return this;
+    }
+
+    VersionedUpdate<T> where(String attribute, Object value) {
+        predicates.add(builder.equal(root.get(attribute), value));
+        return this;
+    }
+
+    // Rows changed: 0 when no row matches the keys or its version is no longer the given one
+    int execute(long version) {
+        Path<Long> current = root.get(VERSION);
+        update.set(current, builder.sum(current, 1L));
+        predicates.add(builder.equal(current, version));
+        update.where(predicates.toArray(Predicate[]::new));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
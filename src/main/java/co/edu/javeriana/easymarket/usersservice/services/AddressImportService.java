@@ -0,0 +1,239 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import co.edu.javeriana.easymarket.usersservice.dtos.AddressDTO;
+import co.edu.javeriana.easymarket.usersservice.dtos.ImportResultDTO;
+import co.edu.javeriana.easymarket.usersservice.mappers.AddressMapper;
+import co.edu.javeriana.easymarket.usersservice.model.Address;
+import co.edu.javeriana.easymarket.usersservice.repository.AddressRepository;
+import co.edu.javeriana.easymarket.usersservice.repository.UserRepository;
+import co.edu.javeriana.easymarket.usersservice.utils.OperationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Imports addresses for one user from an NDJSON or CSV stream. The body is read one line at a time
+// and valid rows are stored in chunks of batch-size, each chunk in its own transaction (sent as JDBC
+// batches) and then dropped from the persistence context, so memory does not grow with the file.
+// Chunks already committed stay when a later one fails or the stream breaks; the result reports
+// every rejected line.
+@Timed("service.invocations")
+@Service
+public class AddressImportService {
+    private static final Logger log = LoggerFactory.getLogger(AddressImportService.class);
+
+    static final int MAX_LINE_LENGTH = 4096;
+    static final int MAX_REPORTED_ERRORS = 1000;
+    private static final List<String> CSV_COLUMNS = List.of("name", "address", "details", "latitude", "longitude");
+
+    public enum Format { NDJSON, CSV }
+
+    private final AddressRepository addressRepository;
+    private final UserRepository userRepository;
+    private final AddressMapper addressMapper;
+    private final ObjectReader addressReader;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final int batchSize;
+
+    public AddressImportService(AddressRepository addressRepository, UserRepository userRepository,
+                                AddressMapper addressMapper, ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager, EntityManager entityManager,
+                                @Value("${addresses.import.batch-size:500}") int batchSize) {
+        this.addressRepository = addressRepository;
+        this.userRepository = userRepository;
+        this.addressMapper = addressMapper;
+        this.addressReader = objectMapper.readerFor(AddressDTO.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManager = entityManager;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public ImportResultDTO importAddresses(String userId, Reader body, Format format) {
+        if (!userRepository.existsById(userId))
+            throw new OperationException(404, "User not found");
+
+        Import state = new Import(userId);
+        LineReader reader = new LineReader(body, MAX_LINE_LENGTH);
+        try {
+            int[] columns = format == Format.CSV ? csvHeader(reader) : null;
+            String line;
+            while ((line = reader.next()) != null) {
+                if (reader.tooLong()) {
+                    state.reject(reader.lineNumber(), "line is longer than " + MAX_LINE_LENGTH + " characters");
+                    continue;
+                }
+                if (line.isBlank())
+                    continue;
+                try {
+                    AddressDTO dto = format == Format.CSV ? csvRow(line, columns) : addressReader.readValue(line);
+                    if (dto == null)
+                        state.reject(reader.lineNumber(), "expected a JSON object");
+                    else
+                        state.accept(reader.lineNumber(), addressMapper.addressDTOToAddress(dto));
+                } catch (JsonProcessingException e) {
+                    state.reject(reader.lineNumber(), "invalid JSON: " + e.getOriginalMessage());
+                } catch (IllegalArgumentException e) {
+                    state.reject(reader.lineNumber(), e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            // The client went away or sent a broken body: keep what was committed and say where it stopped
+            log.warn("Address import for user {} stopped at line {}: {}", userId, reader.lineNumber(), e.getMessage());
+            throw new OperationException(400, "Could not read the request body after line " + reader.lineNumber()
+                    + ", " + state.imported + " addresses were imported");
+        }
+        state.flush();
+        return new ImportResultDTO(reader.lineNumber(), state.imported, state.failed, state.errors);
+    }
+
+    // Position of each known column in the header line; every column is required
+    private static int[] csvHeader(LineReader reader) throws IOException {
+        String header = reader.next();
+        if (header == null || reader.tooLong())
+            throw new OperationException(400, "CSV header is required: " + String.join(",", CSV_COLUMNS));
+        if (header.startsWith("\uFEFF"))
+            header = header.substring(1);
+
+        List<String> names = csvFields(header).stream()
+                .map(name -> name.strip().toLowerCase(Locale.ROOT))
+                .toList();
+        int[] columns = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = names.indexOf(CSV_COLUMNS.get(i));
+            if (columns[i] < 0)
+                throw new OperationException(400, "CSV header is missing the " + CSV_COLUMNS.get(i) + " column");
+        }
+        return columns;
+    }
+
+    private static AddressDTO csvRow(String line, int[] columns) {
+        List<String> fields = csvFields(line);
+        AddressDTO dto = new AddressDTO();
+        dto.setName(field(fields, columns[0]));
+        dto.setAddress(field(fields, columns[1]));
+        dto.setDetails(field(fields, columns[2]));
+        dto.setLatitude(decimal(field(fields, columns[3]), "latitude"));
+        dto.setLongitude(decimal(field(fields, columns[4]), "longitude"));
+        return dto;
+    }
+
+    private static String field(List<String> fields, int column) {
+        String value = column < fields.size() ? fields.get(column) : null;
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static BigDecimal decimal(String value, String column) {
+        if (value == null)
+            return null;
+        try {
+            return new BigDecimal(value.strip());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number");
+        }
+    }
+
+    // RFC 4180 fields of one line: comma separated, optionally quoted with "" as an escaped quote.
+    // Quoted fields cannot span lines.
+    static List<String> csvFields(String line) {
+        List<String> fields = new ArrayList<>(CSV_COLUMNS.size());
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+        while (true) {
+            field.setLength(0);
+            if (i < line.length() && line.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= line.length())
+                        throw new IllegalArgumentException("unterminated quoted field");
+                    char c = line.charAt(i++);
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                if (i < line.length() && line.charAt(i) != ',')
+                    throw new IllegalArgumentException("unexpected character after quoted field");
+            } else {
+                int end = line.indexOf(',', i);
+                field.append(line, i, end < 0 ? line.length() : end);
+                i = end < 0 ? line.length() : end;
+            }
+            fields.add(field.toString());
+            if (i >= line.length())
+                return fields;
+            i++;
+        }
+    }
+
+    // Rows of one import waiting to be stored, and the running totals
+    private final class Import {
+        private final String userId;
+        private final List<Address> pending = new ArrayList<>(batchSize);
+        private final long[] pendingLines = new long[batchSize];
+        private final List<ImportResultDTO.LineError> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        Import(String userId) {
+            this.userId = userId;
+        }
+
+        void accept(long line, Address address) {
+            String error = AddressService.validationError(address);
+            if (error != null) {
+                reject(line, error);
+                return;
+            }
+            address.setId(null);
+            address.setUserId(userId);
+            pendingLines[pending.size()] = line;
+            pending.add(address);
+            if (pending.size() == batchSize)
+                flush();
+        }
+
+        void reject(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS)
+                errors.add(new ImportResultDTO.LineError(line, message));
+        }
+
+        void flush() {
+            if (pending.isEmpty())
+                return;
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    addressRepository.saveAllAndFlush(pending);
+                    entityManager.clear();
+                });
+                imported += pending.size();
+            } catch (DataAccessException e) {
+                log.warn("Address import for user {} could not store lines {}-{}: {}", userId, pendingLines[0],
+                        pendingLines[pending.size() - 1], e.getMostSpecificCause().getMessage());
+                for (int i = 0; i < pending.size(); i++)
+                    reject(pendingLines[i], "not stored: the database rejected this chunk of " + pending.size() + " rows");
+            }
+            pending.clear();
+        }
+    }
+}
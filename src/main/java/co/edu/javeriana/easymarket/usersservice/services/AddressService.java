@@ -1,18 +1,40 @@
 package co.edu.javeriana.easymarket.usersservice.services;
 
+import co.edu.javeriana.easymarket.usersservice.dtos.BatchResultDTO;
+import co.edu.javeriana.easymarket.usersservice.dtos.DeleteResultDTO;
 import co.edu.javeriana.easymarket.usersservice.model.Address;
 import co.edu.javeriana.easymarket.usersservice.repository.AddressRepository;
+import co.edu.javeriana.easymarket.usersservice.repository.UserRepository;
+import co.edu.javeriana.easymarket.usersservice.utils.BulkIds;
+import co.edu.javeriana.easymarket.usersservice.utils.GeoGrid;
 import co.edu.javeriana.easymarket.usersservice.utils.OperationException;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 
+@Timed("service.invocations")
 @Service
 public class AddressService {
+    static final int MAX_BATCH_SIZE = 1000;
+    static final double MAX_NEARBY_RADIUS_KM = 50;
+    static final int DEFAULT_NEARBY_LIMIT = 50;
+    static final int MAX_NEARBY_LIMIT = 500;
+
     private final AddressRepository addressRepository;
+    private final UserRepository userRepository;
 
-    public AddressService(AddressRepository addressRepository) {
+    public AddressService(AddressRepository addressRepository, UserRepository userRepository) {
         this.addressRepository = addressRepository;
+        this.userRepository = userRepository;
     }
 
     // Get all addresses from user id
@@ -20,16 +42,90 @@ public class AddressService {
         return addressRepository.findByUserId(userId);
     }
 
-    // Create address
+    // Create address. Fields are checked up front, so a constraint violation on insert can only be
+    // the user foreign key; any other failure is left to propagate
     public Address createAddress(Address address) {
-        try{
+        String error = validationError(address);
+        if (error != null)
+            throw new OperationException(400, error);
+        // Ids come from the sequence: a client-supplied id would make save() persist a detached entity
+        address.setId(null);
+        try {
             return addressRepository.save(address);
-        }
-        catch (Exception e) {
+        } catch (DataIntegrityViolationException e) {
             throw new OperationException(400, "User id not exists");
         }
     }
 
+    // Create many addresses for one user in a single transaction. Ids come from the pooled sequence,
+    // so the rows are inserted with JDBC batches. One result per input, in order.
+    @Transactional
+    public List<BatchResultDTO<Address>> createAddresses(String userId, List<Address> addresses) {
+        if (addresses == null || addresses.isEmpty())
+            throw new OperationException(400, "At least one address is required");
+        if (addresses.size() > MAX_BATCH_SIZE)
+            throw new OperationException(400, "A batch can contain at most " + MAX_BATCH_SIZE + " addresses");
+        if (!userRepository.existsById(userId))
+            throw new OperationException(404, "User not found");
+
+        List<BatchResultDTO<Address>> results = new ArrayList<>(addresses.size());
+        List<Address> accepted = new ArrayList<>(addresses.size());
+        for (int i = 0; i < addresses.size(); i++) {
+            Address address = addresses.get(i);
+            String error = validationError(address);
+            if (error != null) {
+                results.add(new BatchResultDTO<>(i, 400, error, null));
+            } else {
+                address.setId(null);
+                address.setUserId(userId);
+                accepted.add(address);
+                results.add(new BatchResultDTO<>(i, 201, "Address created", address));
+            }
+        }
+
+        try {
+            addressRepository.saveAllAndFlush(accepted);
+        } catch (DataIntegrityViolationException e) {
+            throw new OperationException(400, "Addresses could not be created");
+        }
+        return results;
+    }
+
+    // Addresses within radiusKm of a point, closest first. Candidates come from the grid_cell index
+    // (only the cells around the point are read), then exact distances are computed here.
+    @Transactional(readOnly = true)
+    public List<Nearby> findNearby(double latitude, double longitude, double radiusKm, Integer limit) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180))
+            throw new OperationException(400, "Invalid coordinates");
+        if (!(radiusKm > 0 && radiusKm <= MAX_NEARBY_RADIUS_KM))
+            throw new OperationException(400, "radiusKm must be greater than 0 and at most " + (int) MAX_NEARBY_RADIUS_KM);
+        int max = limit == null ? DEFAULT_NEARBY_LIMIT : limit;
+        if (max < 1 || max > MAX_NEARBY_LIMIT)
+            throw new OperationException(400, "limit must be between 1 and " + MAX_NEARBY_LIMIT);
+
+        long[] cells = GeoGrid.cellsWithin(latitude, longitude, radiusKm);
+        List<Address> candidates;
+        if (cells != null) {
+            candidates = addressRepository.findByGridCellIn(Arrays.stream(cells).boxed().toList());
+        } else {
+            long[] range = GeoGrid.rowRange(latitude, radiusKm);
+            candidates = addressRepository.findByGridCellBetween(range[0], range[1]);
+        }
+
+        List<Nearby> nearby = new ArrayList<>();
+        for (Address address : candidates) {
+            double distance = GeoGrid.distanceKm(latitude, longitude,
+                    address.getLatitude().doubleValue(), address.getLongitude().doubleValue());
+            if (distance <= radiusKm)
+                nearby.add(new Nearby(address, distance));
+        }
+        nearby.sort(Comparator.comparingDouble(Nearby::distanceKm));
+        return nearby.size() > max ? nearby.subList(0, max) : nearby;
+    }
+
+    public record Nearby(Address address, double distanceKm) {
+    }
+
     public Address getAddressById(String userId, Integer addressId) {
         return addressRepository.findByIdAndUserId(addressId, userId)
                 .orElseThrow(() -> new OperationException(404, "Address not found"));
@@ -64,9 +160,63 @@ public class AddressService {
         return addressRepository.save(updatedAddress);
     }
 
+    // Partial update of the user's address in one UPDATE of the supplied fields, applied only if the
+    // address is still at the version the client read. Returns the new version.
+    @Transactional
+    public long patchAddress(String userId, Integer addressId, long version, Address changes) {
+        if (changes.getName() == null && changes.getAddress() == null && changes.getDetails() == null
+                && changes.getLatitude() == null && changes.getLongitude() == null)
+            throw new OperationException(400, "At least one field is required");
+        if ((changes.getLatitude() == null) != (changes.getLongitude() == null))
+            throw new OperationException(400, "latitude and longitude must be changed together");
+        String error = fieldError(changes);
+        if (error != null)
+            throw new OperationException(400, error);
+
+        if (addressRepository.patch(addressId, userId, version, changes) == 0)
+            throw addressRepository.existsByIdAndUserId(addressId, userId)
+                    ? new OperationException(409, "Address was modified by another request")
+                    : new OperationException(404, "Address not found");
+        return version + 1;
+    }
+
+    // Single DELETE scoped to the owner; no row removed means it does not exist or is not the user's
+    @Transactional
     public void deleteAddress(String userId, Integer addressId) {
-        addressRepository.findByIdAndUserId(addressId, userId)
-                .orElseThrow(() -> new OperationException(404, "Address not found"));
-        addressRepository.deleteById(addressId);
+        if (addressRepository.deleteByIdAndUserId(addressId, userId) == 0)
+            throw new OperationException(404, "Address not found");
+    }
+
+    // Delete many of the user's addresses with one statement; unknown ids and other users' addresses are skipped
+    @Transactional
+    public DeleteResultDTO deleteAddresses(String userId, Collection<Integer> addressIds) {
+        Set<Integer> ids = BulkIds.distinct(addressIds, MAX_BATCH_SIZE, "deleted");
+        return new DeleteResultDTO(ids.size(), addressRepository.deleteByUserIdAndIdIn(userId, ids));
+    }
+
+    // First reason the address cannot be stored as given, null when it is valid. Mirrors the column
+    // definitions of Address so bad rows are rejected before reaching the database.
+    static String validationError(Address address) {
+        if (address.getName() == null) return "name is required";
+        if (address.getAddress() == null) return "address is required";
+        if (address.getDetails() == null) return "details is required";
+        if (address.getLatitude() == null) return "latitude is required";
+        if (address.getLongitude() == null) return "longitude is required";
+        return fieldError(address);
+    }
+
+    // Same checks for the fields that are present, as in a partial update
+    private static String fieldError(Address address) {
+        if (address.getName() != null && address.getName().length() > 45)
+            return "name is longer than 45 characters";
+        if (address.getAddress() != null && address.getAddress().length() > 100)
+            return "address is longer than 100 characters";
+        if (address.getDetails() != null && address.getDetails().length() > 45)
+            return "details is longer than 45 characters";
+        if (address.getLatitude() != null && address.getLatitude().abs().compareTo(BigDecimal.valueOf(90)) > 0)
+            return "latitude must be between -90 and 90";
+        if (address.getLongitude() != null && address.getLongitude().abs().compareTo(BigDecimal.valueOf(180)) > 0)
+            return "longitude must be between -180 and 180";
+        return null;
     }
 }
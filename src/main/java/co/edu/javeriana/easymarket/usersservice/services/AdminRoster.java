@@ -0,0 +1,82 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import co.edu.javeriana.easymarket.usersservice.model.User;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Immutable snapshot of the active admins' emails. Readers never lock; writers copy the
+// snapshot, apply the change and publish the new one (copy-on-write). It is loaded once all
+// admins have been read at startup; until then an empty roster does not mean there are no admins.
+@Component
+public class AdminRoster {
+    private static final String ADMIN_ROL = "admin";
+
+    private record Snapshot(Map<String, String> emailsById, String[] emails) {
+        static Snapshot of(Map<String, String> emailsById) {
+            return new Snapshot(Map.copyOf(emailsById), emailsById.values().toArray(String[]::new));
+        }
+    }
+
+    private volatile Snapshot snapshot = Snapshot.of(Map.of());
+    private volatile boolean loaded;
+
+    public synchronized void reset(Collection<User> admins) {
+        Map<String, String> emailsById = new LinkedHashMap<>();
+        for (User admin : admins) {
+            if (isActiveAdmin(admin))
+                emailsById.put(admin.getId(), admin.getEmail());
+        }
+        snapshot = Snapshot.of(emailsById);
+        loaded = true;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Add, update or drop the user depending on its current role, email and deleted flag
+    public synchronized void apply(User user) {
+        Snapshot current = snapshot;
+        String currentEmail = current.emailsById().get(user.getId());
+
+        if (isActiveAdmin(user)) {
+            if (user.getEmail().equals(currentEmail))
+                return;
+            Map<String, String> emailsById = new LinkedHashMap<>(current.emailsById());
+            emailsById.put(user.getId(), user.getEmail());
+            snapshot = Snapshot.of(emailsById);
+        } else if (current.emailsById().containsKey(user.getId())) {
+            remove(user.getId());
+        }
+    }
+
+    // Follow an email change of a user already in the roster; role and deleted flag are unchanged
+    public synchronized void updateEmail(String id, String email) {
+        Snapshot current = snapshot;
+        if (email == null || !current.emailsById().containsKey(id) || email.equals(current.emailsById().get(id)))
+            return;
+        Map<String, String> emailsById = new LinkedHashMap<>(current.emailsById());
+        emailsById.put(id, email);
+        snapshot = Snapshot.of(emailsById);
+    }
+
+    public synchronized void remove(String id) {
+        Snapshot current = snapshot;
+        if (!current.emailsById().containsKey(id))
+            return;
+        Map<String, String> emailsById = new LinkedHashMap<>(current.emailsById());
+        emailsById.remove(id);
+        snapshot = Snapshot.of(emailsById);
+    }
+
+    public String[] emails() {
+        return snapshot.emails().clone();
+    }
+
+    private static boolean isActiveAdmin(User user) {
+        return ADMIN_ROL.equals(user.getRol()) && !Boolean.TRUE.equals(user.getDeleted()) && user.getEmail() != null;
+    }
+}
@@ -1,57 +1,143 @@
 package co.edu.javeriana.easymarket.usersservice.services;
 
+import co.edu.javeriana.easymarket.usersservice.config.NotificationExecutorConfig;
+import io.micrometer.core.annotation.Timed;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Timed("service.invocations")
 @Service
 public class EmailService {
+    private static final Logger log = LoggerFactory.getLogger(EmailService.class);
 
-    private final JavaMailSender mailSender;
+    private static final EmailTemplate LAYOUT = EmailTemplate.load("templates/email/layout.html", "logo", "title", "content");
+    private static final EmailTemplate QUOTE = EmailTemplate.load("templates/email/quote.html", "text");
     private static final String LOGO_URL = "https://raw.githubusercontent.com/Easy-Market-SPL/.github/refs/heads/main/Banner.png"; // Logo similar al de la imagen
+    private static final String LOGO_CONTENT_ID = "easymarket-logo";
+
+    private final JavaMailSender mailSender;
+    private final MailDispatcher mailDispatcher;
+    // Logo bytes read once and shared by every message as the same inline part; null when mail.logo
+    // is not set or cannot be read, in which case the remote logo URL is referenced instead
+    private final ByteArrayResource logo;
+    private final String logoContentType;
+    private final String logoSource;
+    private final Duration deliveryTimeout;
 
-    public EmailService(JavaMailSender mailSender) {
+    public EmailService(JavaMailSender mailSender, MailDispatcher mailDispatcher,
+                        @Value("${mail.logo:}") Resource logoResource,
+                        @Value("${mail.dispatch.delivery-timeout:60s}") Duration deliveryTimeout) {
         this.mailSender = mailSender;
+        this.mailDispatcher = mailDispatcher;
+        this.deliveryTimeout = deliveryTimeout;
+        this.logo = readLogo(logoResource);
+        this.logoContentType = logo == null ? null : MediaTypeFactory.getMediaType(logoResource)
+                .orElse(MediaType.IMAGE_PNG).toString();
+        this.logoSource = logo == null ? LOGO_URL : "cid:" + LOGO_CONTENT_ID;
     }
 
-    @Async
+    @Async(NotificationExecutorConfig.NOTIFICATION_EXECUTOR)
     public void sendNotification(String subject, String to, String bodyContent) {
-        try {
-            MimeMessage mimeMessage = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
-
-            helper.setTo(to);
-            helper.setSubject("[EasyMarketSPL] " + subject);
+        sendNotification(subject, List.of(to), bodyContent);
+    }
 
-            String html = buildHtmlTemplate(subject, bodyContent);
-            helper.setText(html, true); // true = HTML
+    // The body is rendered once and one message per recipient is handed to the dispatcher,
+    // which sends them over a shared SMTP connection
+    @Async(NotificationExecutorConfig.NOTIFICATION_EXECUTOR)
+    public void sendNotification(String subject, Collection<String> recipients, String bodyContent) {
+        String html = buildHtmlTemplate(subject, bodyContent);
+        for (String to : recipients) {
+            try {
+                mailDispatcher.enqueue(createMessage(subject, to, html));
+            } catch (MessagingException | MailSendException e) {
+                // One bad address or a full queue must not cost the remaining recipients their email
+                log.warn("Could not send email to {}: {}", to, e.getMessage());
+            }
+        }
+    }
 
-            mailSender.send(mimeMessage);
+    // Synchronous variant for callers that must know the messages were sent (e.g. before deleting the
+    // events they came from): waits until the SMTP server has accepted every message and throws
+    // MailSendException if any of them could not be built, queued or sent within the delivery timeout
+    public void deliverNotification(String subject, Collection<String> recipients, String bodyContent) {
+        String html = buildHtmlTemplate(subject, bodyContent);
+        List<CompletableFuture<Void>> sent = new ArrayList<>(recipients.size());
+        try {
+            for (String to : recipients)
+                sent.add(mailDispatcher.submit(createMessage(subject, to, html)));
         } catch (MessagingException e) {
-            System.out.println("Error sending email: " + e.getMessage());
+            throw new MailSendException("Could not build email: " + e.getMessage(), e);
         }
+        try {
+            CompletableFuture.allOf(sent.toArray(CompletableFuture[]::new))
+                    .get(deliveryTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new MailSendException("Could not send email: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new MailSendException("Email not sent within " + deliveryTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while sending email");
+        }
+    }
+
+    // Highlighted block for ids and other literal values inside a notification body
+    public static String formatQuote(String text) {
+        return QUOTE.render(text);
+    }
+
+    MimeMessage createMessage(String subject, String to, String html) throws MessagingException {
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+
+        helper.setTo(to);
+        helper.setSubject("[EasyMarketSPL] " + subject);
+        helper.setText(html, true); // true = HTML
+        if (logo != null)
+            helper.addInline(LOGO_CONTENT_ID, logo, logoContentType);
+        return mimeMessage;
+    }
+
+    String buildHtmlTemplate(String title, String content) {
+        return LAYOUT.render(logoSource, title, content);
     }
 
-    private String buildHtmlTemplate(String title, String content) {
-        return """
-            <div style="font-family: Arial, sans-serif; color: #333;">
-                <div style="text-align: center; padding: 20px 0;">
-                    <img src="%s" alt="Logo" style="width: 200px;">
-                </div>
-                <div style="padding: 20px; background-color: #f9f9f9; border-radius: 8px; max-width: 600px; margin: auto;">
-                    <h2 style="color: #222;">%s</h2>
-                    <p style="font-size: 16px; line-height: 1.6;">%s</p>
-                </div>
-                <div style="font-size: 12px; color: #777; padding: 20px; text-align: center;">
-                    <hr style="margin: 20px 0;">
-                    <p>Este correo fue generado automáticamente por EasyMarket.</p>
-                    <p>Si no reconoces esta actividad, por favor reporta el incidente a <a href="mailto:seguridad@easymarket.com">seguridad@easymarket.com</a>.</p>
-                    <p>Por favor no respondas a este correo directamente.</p>
-                </div>
-            </div>
-            """.formatted(LOGO_URL, title, content);
+    private static ByteArrayResource readLogo(Resource resource) {
+        if (resource == null)
+            return null;
+        if (!resource.exists()) {
+            log.warn("Email logo {} not found, messages will reference {}", resource, LOGO_URL);
+            return null;
+        }
+        try (InputStream in = resource.getInputStream()) {
+            return new ByteArrayResource(StreamUtils.copyToByteArray(in), "email logo");
+        } catch (IOException e) {
+            log.warn("Could not read email logo {}: {}", resource, e.getMessage());
+            return null;
+        }
     }
 }
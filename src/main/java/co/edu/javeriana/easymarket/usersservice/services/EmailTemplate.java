@@ -0,0 +1,85 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// HTML template split once into static segments and {{name}} placeholder slots. Rendering only
+// appends segments and values into a per-thread builder that is reused between messages.
+public final class EmailTemplate {
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+    private final String[] segments;
+    private final int[] slots;
+    private final int parameterCount;
+
+    private EmailTemplate(String[] segments, int[] slots, int parameterCount) {
+        this.segments = segments;
+        this.slots = slots;
+        this.parameterCount = parameterCount;
+    }
+
+    // Values are later passed to render in the order of the declared parameters
+    public static EmailTemplate compile(String source, String... parameters) {
+        List<String> segments = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        List<String> names = Arrays.asList(parameters);
+
+        int position = 0;
+        int open;
+        while ((open = source.indexOf(OPEN, position)) >= 0) {
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0)
+                throw new IllegalArgumentException("Unclosed placeholder at offset " + open);
+            String name = source.substring(open + OPEN.length(), close).strip();
+            int slot = names.indexOf(name);
+            if (slot < 0)
+                throw new IllegalArgumentException("Unknown template parameter: " + name);
+
+            segments.add(source.substring(position, open));
+            slots.add(slot);
+            position = close + CLOSE.length();
+        }
+        segments.add(source.substring(position));
+
+        return new EmailTemplate(segments.toArray(String[]::new), slots.stream().mapToInt(Integer::intValue).toArray(),
+                parameters.length);
+    }
+
+    public static EmailTemplate load(String classpathLocation, String... parameters) {
+        try {
+            String source = StreamUtils.copyToString(new ClassPathResource(classpathLocation).getInputStream(), StandardCharsets.UTF_8);
+            return compile(source, parameters);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load email template " + classpathLocation, e);
+        }
+    }
+
+    public String render(String... values) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        renderTo(out, values);
+        String result = out.toString();
+        // Do not keep an unusually large buffer alive for the lifetime of the thread
+        if (out.capacity() > MAX_RETAINED_CAPACITY)
+            BUFFER.remove();
+        return result;
+    }
+
+    public void renderTo(StringBuilder out, String... values) {
+        if (values.length != parameterCount)
+            throw new IllegalArgumentException("Expected " + parameterCount + " template values but got " + values.length);
+        for (int i = 0; i < slots.length; i++)
+            out.append(segments[i]).append(values[slots[i]]);
+        out.append(segments[slots.length]);
+    }
+}
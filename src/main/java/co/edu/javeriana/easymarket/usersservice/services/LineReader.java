@@ -0,0 +1,81 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import java.io.IOException;
+import java.io.Reader;
+
+// Reads a character stream line by line through a fixed buffer. Unlike BufferedReader.readLine a
+// line never holds more than maxLength characters: the rest of an overlong line is skipped and
+// reported through tooLong(), so memory stays bounded whatever the input.
+final class LineReader {
+    private final Reader in;
+    private final int maxLength;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder line;
+    private int position;
+    private int limit;
+    private long lineNumber;
+    private boolean tooLong;
+
+    LineReader(Reader in, int maxLength) {
+        this.in = in;
+        this.maxLength = maxLength;
+        this.line = new StringBuilder(Math.min(maxLength + 1, 1024));
+    }
+
+    // Next line without its terminator (\n or \r\n), null at the end of the stream
+    String next() throws IOException {
+        line.setLength(0);
+        tooLong = false;
+        boolean started = false;
+        while (true) {
+            if (position == limit) {
+                int read = in.read(buffer, 0, buffer.length);
+                if (read < 0) {
+                    if (!started)
+                        return null;
+                    break;
+                }
+                position = 0;
+                limit = read;
+            }
+            started = true;
+            int start = position;
+            while (position < limit && buffer[position] != '\n')
+                position++;
+            append(start, position - start);
+            if (position < limit) {
+                position++;
+                break;
+            }
+        }
+        lineNumber++;
+        int length = line.length();
+        if (length > 0 && line.charAt(length - 1) == '\r')
+            line.setLength(--length);
+        if (length > maxLength) {
+            line.setLength(maxLength);
+            tooLong = true;
+        }
+        return line.toString();
+    }
+
+    // One-based number of the line last returned by next()
+    long lineNumber() {
+        return lineNumber;
+    }
+
+    // Whether the line last returned by next() was cut at maxLength characters
+    boolean tooLong() {
+        return tooLong;
+    }
+
+    // Keeps one character past maxLength so a trailing \r can still be told apart from content
+    private void append(int start, int count) {
+        int room = maxLength + 1 - line.length();
+        if (count > room) {
+            tooLong = true;
+            count = room;
+        }
+        line.append(buffer, start, count);
+    }
+}
@@ -0,0 +1,279 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Queues outgoing messages and sends them in batches from a single worker over one SMTP connection
+// that is kept open between batches and closed after an idle period. A batch is sent as soon as it is
+// full or when the linger time since its first message has passed. The notification executor depends
+// on it, so on shutdown the executor drains first and the messages its tasks queue are still sent.
+// Each queued message carries a future that completes once the SMTP server has accepted it, or
+// exceptionally when it could not be sent, so callers that must not lose a message can wait for it.
+// Every SMTP send is timed by operation (first attempt or retry after reconnecting) and outcome;
+// failures are counted by operation, including messages rejected by a full queue.
+@Component(MailDispatcher.BEAN_NAME)
+public class MailDispatcher {
+    public static final String BEAN_NAME = "mailDispatcher";
+    private static final Logger log = LoggerFactory.getLogger(MailDispatcher.class);
+    private static final long POLL_INTERVAL_MS = 500;
+
+    private final JavaMailSender mailSender;
+    private final int batchSize;
+    private final Duration linger;
+    private final Duration idleTimeout;
+    private final Duration shutdownTimeout;
+    private final BlockingQueue<Pending> queue;
+    private final MeterRegistry meterRegistry;
+    private final Counter enqueueFailures;
+
+    private volatile boolean running;
+    private Thread worker;
+    // Only touched by the worker thread
+    private Transport transport;
+    private long lastUsed;
+
+    public MailDispatcher(JavaMailSender mailSender,
+                          @Value("${mail.dispatch.batch-size:50}") int batchSize,
+                          @Value("${mail.dispatch.linger:250ms}") Duration linger,
+                          @Value("${mail.dispatch.idle-timeout:30s}") Duration idleTimeout,
+                          @Value("${mail.dispatch.queue-capacity:10000}") int queueCapacity,
+                          @Value("${mail.dispatch.shutdown-timeout:30s}") Duration shutdownTimeout,
+                          MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.batchSize = batchSize;
+        this.linger = linger;
+        this.idleTimeout = idleTimeout;
+        this.shutdownTimeout = shutdownTimeout;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.meterRegistry = meterRegistry;
+        this.enqueueFailures = failures("enqueue");
+        Gauge.builder("mail.dispatch.queued", queue, BlockingQueue::size)
+                .description("Emails waiting to be sent over SMTP")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("mail-dispatcher").daemon().start(this::run);
+    }
+
+    // Sends whatever is still queued, then closes the connection. A worker stuck on the SMTP server
+    // is interrupted after the shutdown timeout and the messages still queued are failed
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (worker == null)
+            return;
+        if (!worker.join(shutdownTimeout)) {
+            log.warn("Mail dispatcher did not finish within {}, {} queued emails are not sent", shutdownTimeout, queue.size());
+            // Drained before interrupting so the worker cannot pick up another message and hang on it again
+            List<Pending> unsent = new ArrayList<>();
+            queue.drainTo(unsent);
+            fail(unsent, new MailSendException("Mail dispatcher stopped before sending"));
+            worker.interrupt();
+        }
+    }
+
+    public void enqueue(MimeMessage message) {
+        submit(message);
+    }
+
+    // Queues the message and returns a future completed when it has been sent
+    public CompletableFuture<Void> submit(MimeMessage message) {
+        if (!running) {
+            enqueueFailures.increment();
+            throw new MailSendException("Mail dispatcher is not running");
+        }
+        Pending pending = new Pending(message, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            enqueueFailures.increment();
+            throw new MailSendException("Mail queue is full");
+        }
+        return pending.sent();
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    closeIfIdle();
+                    continue;
+                }
+                batch.add(first);
+                fill(batch);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException e) {
+                log.warn("Could not send email batch: {}", e.getMessage());
+                fail(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+        // Only left over when the worker was interrupted
+        fail(batch, new MailSendException("Mail dispatcher stopped before sending"));
+        List<Pending> unsent = new ArrayList<>();
+        queue.drainTo(unsent);
+        fail(unsent, new MailSendException("Mail dispatcher stopped before sending"));
+        closeTransport();
+    }
+
+    private static void fail(List<Pending> batch, Exception cause) {
+        for (Pending pending : batch)
+            pending.sent().completeExceptionally(cause);
+    }
+
+    // Waits up to the linger time for the batch to fill; no waiting once shutting down
+    private void fill(List<Pending> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + linger.toNanos();
+        while (batch.size() < batchSize) {
+            long remaining = deadline - System.nanoTime();
+            Pending next = running && remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+            if (next == null)
+                return;
+            batch.add(next);
+        }
+    }
+
+    private void send(List<Pending> batch) {
+        if (!(mailSender instanceof JavaMailSenderImpl sender)) {
+            // No access to the session: let the sender use one connection for the whole batch
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                mailSender.send(batch.stream().map(Pending::message).toArray(MimeMessage[]::new));
+                sample.stop(timer("batch", "success"));
+                batch.forEach(pending -> pending.sent().complete(null));
+            } catch (MailException e) {
+                sample.stop(timer("batch", "failure"));
+                failures("batch").increment();
+                log.warn("Could not send email batch: {}", e.getMessage());
+                fail(batch, e);
+            }
+            return;
+        }
+
+        for (Pending pending : batch) {
+            MimeMessage message = pending.message();
+            try {
+                sendMessage(sender, message, "send");
+                pending.sent().complete(null);
+            } catch (MessagingException e) {
+                if (transport != null && transport.isConnected()) {
+                    // The server answered and rejected the message (e.g. a bad recipient): a retry would fail the same way
+                    log.warn("Could not send email to {}: {}", recipients(message), e.getMessage());
+                    pending.sent().completeExceptionally(e);
+                    continue;
+                }
+                // The kept-alive connection was dropped or could not be opened: reconnect once and retry
+                closeTransport();
+                try {
+                    sendMessage(sender, message, "retry");
+                    pending.sent().complete(null);
+                } catch (MessagingException retry) {
+                    log.warn("Could not send email to {}: {}", recipients(message), retry.getMessage());
+                    closeTransport();
+                    pending.sent().completeExceptionally(retry);
+                }
+            }
+        }
+        lastUsed = System.nanoTime();
+    }
+
+    private void sendMessage(JavaMailSenderImpl sender, MimeMessage message, String operation) throws MessagingException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            if (transport == null || !transport.isConnected())
+                transport = connect(sender);
+            if (message.getSentDate() == null)
+                message.setSentDate(new Date());
+            message.saveChanges();
+            transport.sendMessage(message, message.getAllRecipients());
+            sample.stop(timer(operation, "success"));
+        } catch (MessagingException | RuntimeException e) {
+            sample.stop(timer(operation, "failure"));
+            failures(operation).increment();
+            throw e;
+        }
+    }
+
+    private static Transport connect(JavaMailSenderImpl sender) throws MessagingException {
+        String username = sender.getUsername();
+        String password = sender.getPassword();
+        Transport transport = sender.getSession().getTransport(sender.getProtocol() == null ? "smtp" : sender.getProtocol());
+        transport.connect(sender.getHost(), sender.getPort(),
+                username == null || username.isEmpty() ? null : username,
+                password == null || password.isEmpty() ? null : password);
+        return transport;
+    }
+
+    private void closeIfIdle() {
+        if (transport != null && System.nanoTime() - lastUsed > idleTimeout.toNanos())
+            closeTransport();
+    }
+
+    private void closeTransport() {
+        if (transport == null)
+            return;
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+        transport = null;
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return Timer.builder("mail.send")
+                .description("Time to send emails over SMTP, including reconnecting")
+                .tags("operation", operation, "outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Counter failures(String operation) {
+        return Counter.builder("mail.send.failures")
+                .description("Emails that could not be queued or sent")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private record Pending(MimeMessage message, CompletableFuture<Void> sent) {
+    }
+
+    private static String recipients(MimeMessage message) {
+        try {
+            return Arrays.toString(message.getAllRecipients());
+        } catch (MessagingException e) {
+            return "[unknown]";
+        }
+    }
+}
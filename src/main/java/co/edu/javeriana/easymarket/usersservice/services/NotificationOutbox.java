@@ -0,0 +1,81 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import co.edu.javeriana.easymarket.usersservice.model.OutboxEvent;
+import co.edu.javeriana.easymarket.usersservice.model.OutboxEventType;
+import co.edu.javeriana.easymarket.usersservice.model.User;
+import co.edu.javeriana.easymarket.usersservice.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+
+// Records the user lifecycle events that notify admins. Must be called inside the transaction
+// that changes the user so the event is committed (or rolled back) together with the change.
+@Component
+public class NotificationOutbox {
+    private final OutboxEventRepository outboxEventRepository;
+    private final boolean enabled;
+
+    public NotificationOutbox(OutboxEventRepository outboxEventRepository,
+                              @Value("${features.notifications:false}") boolean enabled) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.enabled = enabled;
+    }
+
+    // Only employee accounts are announced
+    public void userCreated(User user) {
+        if (!isCustomer(user.getRol()))
+            record(event(OutboxEventType.USER_CREATED, user, null));
+    }
+
+    public void usersCreated(List<User> users) {
+        List<OutboxEvent> events = users.stream()
+                .filter(user -> !isCustomer(user.getRol()))
+                .map(user -> event(OutboxEventType.USER_CREATED, user, null))
+                .toList();
+        if (enabled && !events.isEmpty())
+            outboxEventRepository.saveAll(events);
+    }
+
+    public void userDeleted(User user) {
+        record(event(OutboxEventType.USER_DELETED, user, null));
+    }
+
+    public void userRestored(User user) {
+        record(event(OutboxEventType.USER_RESTORED, user, null));
+    }
+
+    public void userPurged(User user) {
+        record(event(OutboxEventType.USER_PURGED, user, null));
+    }
+
+    // Only promotions out of the customer role are announced. Runs in the publisher's transaction.
+    @EventListener
+    public void roleChanged(UserRoleChangedEvent change) {
+        if (isCustomer(change.previousRol()) && !isCustomer(change.rol()))
+            record(event(OutboxEventType.USER_ROLE_CHANGED, change.user(), change.previousRol()));
+    }
+
+    private void record(OutboxEvent event) {
+        if (enabled)
+            outboxEventRepository.save(event);
+    }
+
+    private static OutboxEvent event(OutboxEventType type, User user, String previousRol) {
+        OutboxEvent event = new OutboxEvent();
+        event.setType(type);
+        event.setUserId(user.getId());
+        event.setFullname(user.getFullname());
+        event.setEmail(user.getEmail());
+        event.setRol(user.getRol());
+        event.setPreviousRol(previousRol);
+        event.setCreatedAt(Instant.now());
+        return event;
+    }
+
+    private static boolean isCustomer(String rol) {
+        return "customer".equalsIgnoreCase(rol);
+    }
+}
@@ -0,0 +1,205 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import co.edu.javeriana.easymarket.usersservice.model.OutboxEvent;
+import co.edu.javeriana.easymarket.usersservice.model.OutboxEventType;
+import co.edu.javeriana.easymarket.usersservice.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+// Drains the notification outbox in the background: each batch is locked, turned into admin emails,
+// sent, and deleted in the same transaction only once every email has been accepted by the SMTP server.
+// A failure rolls the batch back so it is retried on the next poll; delivery is at-least-once, so a
+// batch that failed part-way may email some admins twice.
+// Without digest mode every poll sends one email per event type. In digest mode only priority events
+// are sent right away; the rest accumulate until the window has passed since the oldest one or the
+// threshold is reached, and are then sent as a single summary email.
+@Component
+@ConditionalOnProperty(prefix = "features", name = "notifications", havingValue = "true", matchIfMissing = false)
+public class NotificationRelay {
+    private static final Logger log = LoggerFactory.getLogger(NotificationRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final EmailService emailService;
+    private final AdminRoster adminRoster;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration digestWindow;
+    private final int digestThreshold;
+    private final int digestMaxEvents;
+    private final EnumSet<OutboxEventType> immediateTypes;
+    private final EnumSet<OutboxEventType> digestTypes;
+
+    public NotificationRelay(OutboxEventRepository outboxEventRepository, EmailService emailService,
+                             AdminRoster adminRoster, PlatformTransactionManager transactionManager,
+                             @Value("${notifications.outbox.batch-size:100}") int batchSize,
+                             @Value("${notifications.digest.enabled:false}") boolean digest,
+                             @Value("${notifications.digest.window:15m}") Duration digestWindow,
+                             @Value("${notifications.digest.threshold:200}") int digestThreshold,
+                             @Value("${notifications.digest.max-events:1000}") int digestMaxEvents,
+                             @Value("${notifications.digest.priority-events:USER_ROLE_CHANGED}") Set<OutboxEventType> priorityEvents) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.emailService = emailService;
+        this.adminRoster = adminRoster;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.digestWindow = digestWindow;
+        this.digestThreshold = digestThreshold;
+        this.digestMaxEvents = digestMaxEvents;
+        if (digest) {
+            this.immediateTypes = EnumSet.noneOf(OutboxEventType.class);
+            this.immediateTypes.addAll(priorityEvents);
+            this.digestTypes = EnumSet.complementOf(immediateTypes);
+        } else {
+            this.immediateTypes = EnumSet.allOf(OutboxEventType.class);
+            this.digestTypes = EnumSet.noneOf(OutboxEventType.class);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.poll-interval:2s}")
+    public void drain() {
+        // Polls start with the context, before the roster is read: wait for it rather than discard
+        // the pending events as having no recipients
+        if (!adminRoster.isLoaded())
+            return;
+        try {
+            if (!immediateTypes.isEmpty())
+                drain(immediateTypes, batchSize, this::sendPerType);
+            if (!digestTypes.isEmpty() && digestDue())
+                drain(digestTypes, digestMaxEvents, this::sendDigest);
+        } catch (RuntimeException e) {
+            log.warn("Could not relay notification outbox: {}", e.getMessage());
+        }
+    }
+
+    private void drain(Set<OutboxEventType> types, int limit, BiConsumer<List<OutboxEvent>, List<String>> sender) {
+        Integer drained;
+        do {
+            drained = transactionTemplate.execute(status -> relayBatch(types, limit, sender));
+        } while (drained != null && drained == limit);
+    }
+
+    private int relayBatch(Set<OutboxEventType> types, int limit, BiConsumer<List<OutboxEvent>, List<String>> sender) {
+        List<OutboxEvent> events = outboxEventRepository.findBatchForUpdate(types, PageRequest.of(0, limit));
+        if (events.isEmpty())
+            return 0;
+
+        // With the roster loaded, no recipients means there are no admins to notify
+        List<String> recipients = List.of(adminRoster.emails());
+        if (!recipients.isEmpty())
+            sender.accept(events, recipients);
+
+        outboxEventRepository.deleteAllInBatch(events);
+        return events.size();
+    }
+
+    private boolean digestDue() {
+        if (outboxEventRepository.countByTypeIn(digestTypes) >= digestThreshold)
+            return true;
+        Instant oldest = outboxEventRepository.findOldestCreatedAt(digestTypes);
+        return oldest != null && !oldest.isAfter(Instant.now().minus(digestWindow));
+    }
+
+    private void sendPerType(List<OutboxEvent> events, List<String> recipients) {
+        byType(events).forEach((type, group) ->
+                emailService.deliverNotification(subject(type, group.size() > 1), recipients, message(type, group)));
+    }
+
+    // One summary listing every affected user, grouped by event type
+    private void sendDigest(List<OutboxEvent> events, List<String> recipients) {
+        StringBuilder message = new StringBuilder(String.format(
+                "Se registraron %d eventos de usuarios desde %s:<br>", events.size(), events.get(0).getCreatedAt()));
+        byType(events).forEach((type, group) -> {
+            message.append(String.format("<br><strong>%s (%d)</strong>", heading(type), group.size()));
+            StringBuilder entries = new StringBuilder();
+            for (OutboxEvent event : group) {
+                if (!entries.isEmpty())
+                    entries.append("<br>");
+                entries.append(switch (type) {
+                    case USER_CREATED -> String.format("%s - %s (%s)", event.getUserId(), event.getEmail(), event.getRol());
+                    case USER_ROLE_CHANGED -> String.format("%s: %s &rarr; %s", event.getUserId(), event.getPreviousRol(), event.getRol());
+                    default -> event.getUserId();
+                });
+            }
+            message.append(EmailService.formatQuote(entries.toString()));
+        });
+        emailService.deliverNotification("Resumen de actividad de usuarios", recipients, message.toString());
+    }
+
+    private static Map<OutboxEventType, List<OutboxEvent>> byType(List<OutboxEvent> events) {
+        return events.stream()
+                .collect(Collectors.groupingBy(OutboxEvent::getType, () -> new EnumMap<>(OutboxEventType.class), Collectors.toList()));
+    }
+
+    private static String subject(OutboxEventType type, boolean plural) {
+        return switch (type) {
+            case USER_CREATED -> plural ? "Nuevos usuarios creados" : "Nuevo usuario creado";
+            case USER_DELETED -> plural ? "Usuarios marcados como eliminados" : "Usuario marcado como eliminado";
+            case USER_RESTORED -> plural ? "Usuarios restaurados" : "Usuario restaurado";
+            case USER_PURGED -> plural ? "Usuarios eliminados permanentemente" : "Usuario eliminado permanentemente";
+            case USER_ROLE_CHANGED -> plural ? "Cambios de rol de usuarios" : "Cambio de rol de usuario";
+        };
+    }
+
+    // Section title in a digest: always plural, the number of events is shown next to it
+    private static String heading(OutboxEventType type) {
+        return subject(type, true);
+    }
+
+    private static String message(OutboxEventType type, List<OutboxEvent> events) {
+        if (events.size() == 1)
+            return single(type, events.get(0));
+
+        StringBuilder message = new StringBuilder(switch (type) {
+            case USER_CREATED -> "Se han creado " + events.size() + " nuevos usuarios empleados:<br>";
+            case USER_DELETED -> "Se eliminaron (soft-delete) los usuarios con ID:<br>";
+            case USER_RESTORED -> "Los usuarios con los siguientes ID han sido restaurados:<br>";
+            case USER_PURGED -> "Se eliminaron de forma permanente los usuarios con ID:<br>";
+            case USER_ROLE_CHANGED -> "Los siguientes usuarios han dejado el rol 'customer':<br>";
+        });
+        for (OutboxEvent event : events) {
+            message.append(switch (type) {
+                case USER_CREATED -> String.format("""
+                    <strong>Nombre:</strong> %s - <strong>Email:</strong> %s - <strong>Rol:</strong> %s<br>
+                    """, event.getFullname(), event.getEmail(), event.getRol());
+                case USER_ROLE_CHANGED -> String.format("""
+                    <strong>Nuevo rol:</strong> %s%s""", event.getRol(), EmailService.formatQuote(event.getUserId()));
+                default -> EmailService.formatQuote(event.getUserId());
+            });
+        }
+        return message.toString();
+    }
+
+    private static String single(OutboxEventType type, OutboxEvent event) {
+        return switch (type) {
+            case USER_CREATED -> String.format("""
+                Se ha creado un nuevo usuario empleado:<br>
+                <strong>Nombre:</strong> %s<br>
+                <strong>Email:</strong> %s<br>
+                <strong>Rol:</strong> %s
+                """, event.getFullname(), event.getEmail(), event.getRol());
+            case USER_DELETED -> "Se eliminó (soft-delete) el usuario con ID:<br>" + EmailService.formatQuote(event.getUserId());
+            case USER_RESTORED -> "El usuario con el siguiente ID ha sido restaurado:<br>" + EmailService.formatQuote(event.getUserId());
+            case USER_PURGED -> "Se eliminó de forma permanente el usuario con ID:<br>" + EmailService.formatQuote(event.getUserId());
+            case USER_ROLE_CHANGED -> String.format("""
+                El usuario con el siguiente ID ha cambiado su rol de '%s' a '%s':<br>%s
+                """, event.getPreviousRol(), event.getRol(), EmailService.formatQuote(event.getUserId()));
+        };
+    }
+}
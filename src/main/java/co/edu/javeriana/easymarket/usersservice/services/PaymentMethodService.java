@@ -1,15 +1,27 @@
 package co.edu.javeriana.easymarket.usersservice.services;
 
+import co.edu.javeriana.easymarket.usersservice.dtos.BatchResultDTO;
+import co.edu.javeriana.easymarket.usersservice.dtos.DeleteResultDTO;
 import co.edu.javeriana.easymarket.usersservice.model.PaymentMethod;
 import co.edu.javeriana.easymarket.usersservice.repository.PaymentMethodRepository;
 import co.edu.javeriana.easymarket.usersservice.repository.UserRepository;
+import co.edu.javeriana.easymarket.usersservice.utils.BulkIds;
 import co.edu.javeriana.easymarket.usersservice.utils.OperationException;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
+@Timed("service.invocations")
 @Service
 public class PaymentMethodService {
+    static final int MAX_BATCH_SIZE = 1000;
+
     private final PaymentMethodRepository paymentMethodRepository;
     private final UserRepository userRepository;
 
@@ -37,7 +49,8 @@ public class PaymentMethodService {
             throw new OperationException(404, "User not found");
         }
 
-        // Save the payment method
+        // Ids come from the sequence: a client-supplied id would make save() persist a detached entity
+        paymentMethod.setId(null);
         try {
             return paymentMethodRepository.save(paymentMethod);
         } catch (Exception e) {
@@ -45,10 +58,52 @@ public class PaymentMethodService {
         }
     }
 
-    // Delete Payment Method by id
+    // Create many payment methods for one user in a single transaction. Ids come from the pooled
+    // sequence, so the rows are inserted with JDBC batches. One result per input, in order.
+    @Transactional
+    public List<BatchResultDTO<PaymentMethod>> createPaymentMethods(String userId, List<PaymentMethod> paymentMethods) {
+        if (paymentMethods == null || paymentMethods.isEmpty())
+            throw new OperationException(400, "At least one payment method is required");
+        if (paymentMethods.size() > MAX_BATCH_SIZE)
+            throw new OperationException(400, "A batch can contain at most " + MAX_BATCH_SIZE + " payment methods");
+        if (!userRepository.existsById(userId))
+            throw new OperationException(404, "User not found");
+
+        List<BatchResultDTO<PaymentMethod>> results = new ArrayList<>(paymentMethods.size());
+        List<PaymentMethod> accepted = new ArrayList<>(paymentMethods.size());
+        for (int i = 0; i < paymentMethods.size(); i++) {
+            PaymentMethod paymentMethod = paymentMethods.get(i);
+            String error = validationError(paymentMethod);
+            if (error != null) {
+                results.add(new BatchResultDTO<>(i, 400, error, null));
+            } else {
+                paymentMethod.setId(null);
+                paymentMethod.setUserId(userId);
+                accepted.add(paymentMethod);
+                results.add(new BatchResultDTO<>(i, 201, "Payment method created", paymentMethod));
+            }
+        }
+
+        try {
+            paymentMethodRepository.saveAllAndFlush(accepted);
+        } catch (DataIntegrityViolationException e) {
+            throw new OperationException(400, "Payment methods could not be created");
+        }
+        return results;
+    }
+
+    // Delete Payment Method by id, in one DELETE scoped to the owner
+    @Transactional
     public void deletePaymentMethod(String userId, Integer paymentMethodId) {
-        paymentMethodRepository.findByIdAndUserId(paymentMethodId, userId).orElseThrow(() -> new OperationException(404, "Payment method or user not found"));
-        paymentMethodRepository.deleteById(paymentMethodId);
+        if (paymentMethodRepository.deleteByIdAndUserId(paymentMethodId, userId) == 0)
+            throw new OperationException(404, "Payment method or user not found");
+    }
+
+    // Delete many of the user's payment methods with one statement; unknown ids and other users' payment methods are skipped
+    @Transactional
+    public DeleteResultDTO deletePaymentMethods(String userId, Collection<Integer> paymentMethodIds) {
+        Set<Integer> ids = BulkIds.distinct(paymentMethodIds, MAX_BATCH_SIZE, "deleted");
+        return new DeleteResultDTO(ids.size(), paymentMethodRepository.deleteByUserIdAndIdIn(userId, ids));
     }
 
     // Update Payment Method
@@ -109,4 +164,73 @@ public class PaymentMethodService {
         // Save the updated payment method
         return paymentMethodRepository.save(existingPaymentMethod);
     }
+
+    // Partial update of the user's payment method in one UPDATE of the supplied fields, applied only
+    // if it is still at the version the client read. Returns the new version.
+    @Transactional
+    public long patchPaymentMethod(String userId, Integer paymentMethodId, long version, PaymentMethod changes) {
+        if (isEmpty(changes))
+            throw new OperationException(400, "At least one field is required");
+        String error = fieldError(changes);
+        if (error != null)
+            throw new OperationException(400, error);
+
+        int updated;
+        try {
+            updated = paymentMethodRepository.patch(paymentMethodId, userId, version, changes);
+        } catch (DataIntegrityViolationException e) {
+            throw new OperationException(400, "Payment method could not be updated");
+        }
+        if (updated == 0)
+            throw paymentMethodRepository.existsByIdAndUserId(paymentMethodId, userId)
+                    ? new OperationException(409, "Payment method was modified by another request")
+                    : new OperationException(404, "Payment method or user not found");
+        return version + 1;
+    }
+
+    private static boolean isEmpty(PaymentMethod paymentMethod) {
+        return paymentMethod.getCardNumber() == null && paymentMethod.getEmail() == null
+                && paymentMethod.getPhone() == null && paymentMethod.getExpiryDate() == null
+                && paymentMethod.getCardHolderName() == null && paymentMethod.getCity() == null
+                && paymentMethod.getFirstLine() == null && paymentMethod.getSecondLine() == null
+                && paymentMethod.getCountry() == null && paymentMethod.getPostalCode() == null
+                && paymentMethod.getStateName() == null;
+    }
+
+    // First reason the payment method cannot be stored as given, null when it is valid. Mirrors the
+    // column definitions of PaymentMethod so bad rows are rejected before reaching the database.
+    static String validationError(PaymentMethod paymentMethod) {
+        if (paymentMethod.getCardNumber() == null) return "cardNumber is required";
+        if (paymentMethod.getEmail() == null) return "email is required";
+        if (paymentMethod.getPhone() == null) return "phone is required";
+        if (paymentMethod.getExpiryDate() == null) return "expiryDate is required";
+        if (paymentMethod.getCardHolderName() == null) return "cardHolderName is required";
+        if (paymentMethod.getCity() == null) return "city is required";
+        if (paymentMethod.getFirstLine() == null) return "firstLine is required";
+        if (paymentMethod.getSecondLine() == null) return "secondLine is required";
+        if (paymentMethod.getCountry() == null) return "country is required";
+        if (paymentMethod.getPostalCode() == null) return "postalCode is required";
+        if (paymentMethod.getStateName() == null) return "stateName is required";
+        return fieldError(paymentMethod);
+    }
+
+    // Same checks for the fields that are present, as in a partial update
+    private static String fieldError(PaymentMethod paymentMethod) {
+        if (tooLong(paymentMethod.getCardNumber(), 16)) return "cardNumber is longer than 16 characters";
+        if (tooLong(paymentMethod.getEmail(), 50)) return "email is longer than 50 characters";
+        if (tooLong(paymentMethod.getPhone(), 15)) return "phone is longer than 15 characters";
+        if (tooLong(paymentMethod.getExpiryDate(), 6)) return "expiryDate is longer than 6 characters";
+        if (tooLong(paymentMethod.getCardHolderName(), 100)) return "cardHolderName is longer than 100 characters";
+        if (tooLong(paymentMethod.getCity(), 30)) return "city is longer than 30 characters";
+        if (tooLong(paymentMethod.getFirstLine(), 100)) return "firstLine is longer than 100 characters";
+        if (tooLong(paymentMethod.getSecondLine(), 100)) return "secondLine is longer than 100 characters";
+        if (tooLong(paymentMethod.getCountry(), 25)) return "country is longer than 25 characters";
+        if (tooLong(paymentMethod.getPostalCode(), 10)) return "postalCode is longer than 10 characters";
+        if (tooLong(paymentMethod.getStateName(), 25)) return "stateName is longer than 25 characters";
+        return null;
+    }
+
+    private static boolean tooLong(String value, int maxLength) {
+        return value != null && value.length() > maxLength;
+    }
 }
@@ -0,0 +1,76 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import co.edu.javeriana.easymarket.usersservice.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Bounded read-through cache of users by id (W-TinyLFU eviction). Hit, miss and eviction
+// counters are published as the "cache.*" meters tagged cache=users.
+@Component
+public class UserCache implements MeterBinder {
+    private final Cache<String, User> cache;
+    // Bumped before every invalidation. A bulk load reads outside the per-key locks, so it only caches
+    // its rows when no invalidation happened since it started: otherwise a row read before a
+    // concurrent update could be cached after that update invalidated it, and be served (with its
+    // stale version as ETag) until it expires
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public UserCache(@Value("${users.cache.maximum-size:10000}") long maximumSize,
+                     @Value("${users.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    // Returns the cached user or loads it; a null load result is not cached
+    public User get(String id, Function<String, User> loader) {
+        return cache.get(id, loader);
+    }
+
+    // Returns the users found for the ids; all misses are loaded with a single bulk call
+    public Map<String, User> getAll(Collection<String> ids, Function<Set<String>, Map<String, User>> loader) {
+        Map<String, User> users = new HashMap<>(cache.getAllPresent(ids));
+        Set<String> missing = new HashSet<>(ids);
+        missing.removeAll(users.keySet());
+        if (missing.isEmpty())
+            return users;
+
+        long stamp = invalidations.get();
+        loader.apply(Collections.unmodifiableSet(missing)).forEach((id, user) -> {
+            if (user == null || !missing.contains(id))
+                return;
+            users.put(id, user);
+            // Checked under the key's lock, so an invalidation either prevents the insert or removes it after
+            cache.asMap().compute(id, (key, cached) -> cached == null && invalidations.get() == stamp ? user : cached);
+        });
+        return users;
+    }
+
+    public void invalidate(String id) {
+        invalidations.incrementAndGet();
+        cache.invalidate(id);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new CaffeineCacheMetrics<>(cache, "users", Tags.empty()).bindTo(registry);
+    }
+}
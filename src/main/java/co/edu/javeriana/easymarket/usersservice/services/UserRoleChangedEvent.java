@@ -0,0 +1,8 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import co.edu.javeriana.easymarket.usersservice.model.User;
+
+// Published inside the update transaction when a user's role changes, so listeners see the role
+// before and after the change without loading the user again
+public record UserRoleChangedEvent(User user, String previousRol, String rol) {
+}
@@ -0,0 +1,234 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import co.edu.javeriana.easymarket.usersservice.model.User;
+import co.edu.javeriana.easymarket.usersservice.repository.UserRepository;
+import co.edu.javeriana.easymarket.usersservice.utils.DatabasePlatform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// In-memory trigram index over fullname, username and email. Used for substring search when the
+// datasource has no trigram index support (PostgreSQL uses pg_trgm GIN indexes instead).
+@Component
+public class UserSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(UserSearchIndex.class);
+    private static final int GRAM_SIZE = 3;
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    private final UserRepository userRepository;
+    private final DataSource dataSource;
+    private final String mode;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, NavigableSet<String>> postings = new HashMap<>();
+    // Updates are tracked from the start of the load so none committed meanwhile is lost; searches
+    // are only answered once every page is indexed
+    private volatile boolean tracking;
+    private volatile boolean enabled;
+    private volatile boolean ready;
+
+    public UserSearchIndex(UserRepository userRepository, DataSource dataSource,
+                           @Value("${features.search-index:auto}") String mode) {
+        this.userRepository = userRepository;
+        this.dataSource = dataSource;
+        this.mode = mode;
+    }
+
+    public record SearchResult(List<String> ids, Long total) {
+    }
+
+    private record Entry(String id, String fullname, String username, String email, String rol, boolean deleted) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        tracking = "memory".equalsIgnoreCase(mode)
+                || ("auto".equalsIgnoreCase(mode) && !DatabasePlatform.isPostgres(dataSource));
+        if (!tracking)
+            return;
+
+        // Walk the table by keyset pages so the load never holds more than one page of entities
+        String after = null;
+        int loaded = 0;
+        List<User> page;
+        do {
+            page = userRepository.findUsersPageByFilters(null, null, null, null, null, after, PageRequest.of(0, LOAD_PAGE_SIZE));
+            lock.writeLock().lock();
+            try {
+                for (User user : page) {
+                    if (!entries.containsKey(user.getId()))
+                        add(toEntry(user));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            loaded += page.size();
+            if (!page.isEmpty())
+                after = page.get(page.size() - 1).getId();
+        } while (page.size() == LOAD_PAGE_SIZE);
+
+        enabled = true;
+        ready = true;
+        log.info("In-memory user search index loaded with {} users", loaded);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void put(User user) {
+        if (!tracking)
+            return;
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.get(user.getId());
+            if (previous != null)
+                remove(previous);
+            add(toEntry(user));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Apply the non-null fields of a partial update to the indexed user, if it is indexed
+    public void patch(String id, String fullname, String username, String email) {
+        if (!tracking)
+            return;
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.get(id);
+            if (previous == null)
+                return;
+            remove(previous);
+            add(new Entry(id,
+                    fullname != null ? normalizeValue(fullname) : previous.fullname(),
+                    username != null ? normalizeValue(username) : previous.username(),
+                    email != null ? normalizeValue(email) : previous.email(),
+                    previous.rol(), previous.deleted()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        if (!tracking)
+            return;
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.get(id);
+            if (previous != null)
+                remove(previous);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Returns the ids (ascending, by String.compareTo like the "C" collation of user.id on PostgreSQL)
+    // of matching users after the cursor, or null when the query
+    // cannot be answered by the index (disabled, still loading, or no text filter of 3+ chars)
+    public SearchResult search(String fullname, String username, String email, String rol, Boolean deleted,
+                               String after, int limit, boolean includeTotal) {
+        if (!enabled || !ready)
+            return null;
+
+        String fullnameQuery = normalize(fullname);
+        String usernameQuery = normalize(username);
+        String emailQuery = normalize(email);
+
+        lock.readLock().lock();
+        try {
+            // Scan only the smallest posting list among the query trigrams, then verify each candidate
+            NavigableSet<String> candidates = null;
+            candidates = smallest(candidates, 'f', fullnameQuery);
+            candidates = smallest(candidates, 'u', usernameQuery);
+            candidates = smallest(candidates, 'e', emailQuery);
+            if (candidates == null)
+                return null;
+
+            List<String> ids = new ArrayList<>(Math.min(limit, candidates.size()));
+            long total = 0;
+            for (String id : includeTotal || after == null ? candidates : candidates.tailSet(after, false)) {
+                Entry entry = entries.get(id);
+                if (!matches(entry, fullnameQuery, usernameQuery, emailQuery, rol, deleted))
+                    continue;
+                total++;
+                if (ids.size() < limit && (after == null || id.compareTo(after) > 0))
+                    ids.add(id);
+                else if (!includeTotal && ids.size() >= limit)
+                    break;
+            }
+            return new SearchResult(ids, includeTotal ? total : null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private NavigableSet<String> smallest(NavigableSet<String> current, char field, String query) {
+        if (query == null || query.length() < GRAM_SIZE)
+            return current;
+        NavigableSet<String> best = current;
+        for (int i = 0; i + GRAM_SIZE <= query.length(); i++) {
+            NavigableSet<String> posting = postings.getOrDefault(field + query.substring(i, i + GRAM_SIZE), Collections.emptyNavigableSet());
+            if (best == null || posting.size() < best.size())
+                best = posting;
+        }
+        return best;
+    }
+
+    private static boolean matches(Entry entry, String fullname, String username, String email, String rol, Boolean deleted) {
+        return (fullname == null || entry.fullname().contains(fullname))
+                && (username == null || entry.username().contains(username))
+                && (email == null || entry.email().contains(email))
+                && (rol == null || rol.equals(entry.rol()))
+                && (deleted == null || deleted == entry.deleted());
+    }
+
+    private void add(Entry entry) {
+        entries.put(entry.id(), entry);
+        forEachGram(entry, key -> postings.computeIfAbsent(key, k -> new TreeSet<>()).add(entry.id()));
+    }
+
+    private void remove(Entry entry) {
+        entries.remove(entry.id());
+        forEachGram(entry, key -> {
+            NavigableSet<String> posting = postings.get(key);
+            if (posting != null && posting.remove(entry.id()) && posting.isEmpty())
+                postings.remove(key);
+        });
+    }
+
+    private static void forEachGram(Entry entry, Consumer<String> action) {
+        forEachGram('f', entry.fullname(), action);
+        forEachGram('u', entry.username(), action);
+        forEachGram('e', entry.email(), action);
+    }
+
+    private static void forEachGram(char field, String value, Consumer<String> action) {
+        for (int i = 0; i + GRAM_SIZE <= value.length(); i++)
+            action.accept(field + value.substring(i, i + GRAM_SIZE));
+    }
+
+    private static Entry toEntry(User user) {
+        return new Entry(user.getId(), normalizeValue(user.getFullname()), normalizeValue(user.getUsername()),
+                normalizeValue(user.getEmail()), user.getRol(), Boolean.TRUE.equals(user.getDeleted()));
+    }
+
+    private static String normalize(String query) {
+        return query == null ? null : query.toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalizeValue(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+}
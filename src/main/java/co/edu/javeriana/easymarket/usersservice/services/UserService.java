@@ -1,30 +1,140 @@
 package co.edu.javeriana.easymarket.usersservice.services;
 
+import co.edu.javeriana.easymarket.usersservice.dtos.BatchResultDTO;
+import co.edu.javeriana.easymarket.usersservice.dtos.PageDTO;
 import co.edu.javeriana.easymarket.usersservice.model.User;
 import co.edu.javeriana.easymarket.usersservice.repository.UserRepository;
+import co.edu.javeriana.easymarket.usersservice.utils.BulkIds;
 import co.edu.javeriana.easymarket.usersservice.utils.OperationException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+@Timed("service.invocations")
 @Service
 public class UserService {
-    private final UserRepository userRepository;
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final String NOT_NULL_VIOLATION = "23502";
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+    static final int MAX_BATCH_SIZE = 1000;
+    static final int MAX_LOOKUP_SIZE = 500;
 
-    public UserService(UserRepository userRepository) {
+    private final UserRepository userRepository;
+    private final UserSearchIndex userSearchIndex;
+    private final UserCache userCache;
+    private final AdminRoster adminRoster;
+    private final NotificationOutbox notificationOutbox;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+
+    public UserService(UserRepository userRepository, UserSearchIndex userSearchIndex, UserCache userCache,
+                       AdminRoster adminRoster, NotificationOutbox notificationOutbox,
+                       ApplicationEventPublisher eventPublisher, EntityManager entityManager) {
         this.userRepository = userRepository;
+        this.userSearchIndex = userSearchIndex;
+        this.userCache = userCache;
+        this.adminRoster = adminRoster;
+        this.notificationOutbox = notificationOutbox;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+    }
+
+    // Get a keyset page of users matching the filters, ordered by id
+    public PageDTO<User> getUsers(String fullname, String username, String email, String rol, Boolean deleted,
+                                  String cursor, Integer limit, boolean includeTotal) throws OperationException {
+        if(deleted == null)
+            deleted = false;
+
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE)
+            throw new OperationException(400, "Limit must be between 1 and " + MAX_PAGE_SIZE);
+
+        String after = decodeCursor(cursor);
+
+        // Fetch one extra row to know whether there is a next page without counting
+        List<User> users;
+        Long total;
+        UserSearchIndex.SearchResult hits = userSearchIndex.search(fullname, username, email, rol, deleted,
+                after, pageSize + 1, includeTotal);
+        if (hits != null) {
+            users = userRepository.findAllById(hits.ids()).stream()
+                    .sorted(Comparator.comparing(User::getId))
+                    .collect(Collectors.toList());
+            total = hits.total();
+        } else {
+            users = userRepository.findUsersPageByFilters(likeLiteral(fullname), likeLiteral(username), likeLiteral(email),
+                    rol, deleted, after, PageRequest.of(0, pageSize + 1));
+            total = includeTotal ? userRepository.countUsersByFilters(likeLiteral(fullname), likeLiteral(username),
+                    likeLiteral(email), rol, deleted) : null;
+        }
+
+        String next = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            next = encodeCursor(users.get(pageSize - 1).getId());
+        }
+
+        return new PageDTO<>(users, next, total);
+    }
+
+    // Resolve many users by id: cache hits first, then one IN query for all the misses.
+    // The result follows the request order and leaves out unknown and deleted users.
+    public Map<String, User> getUsersByIds(Collection<String> ids) throws OperationException {
+        // Nulls are dropped here: the cache cannot look them up
+        Set<String> requested = BulkIds.distinct(ids, MAX_LOOKUP_SIZE, "requested");
+
+        Map<String, User> loaded = userCache.getAll(requested, missing -> userRepository.findAllById(missing).stream()
+                .collect(Collectors.toMap(User::getId, user -> user)));
+
+        Map<String, User> users = new LinkedHashMap<>();
+        for (String id : requested) {
+            User user = loaded.get(id);
+            if (user != null && !user.getDeleted())
+                users.put(id, user);
+        }
+        return users;
     }
 
-    // Get all not deleted users
-    public List<User> getUsers(String fullname, String username, String email, String rol, Boolean deleted) {
+    // Stream every user matching the filters to the consumer, one row at a time
+    @Transactional(readOnly = true)
+    public void exportUsers(String fullname, String username, String email, String rol, Boolean deleted,
+                            Consumer<User> consumer) {
         if(deleted == null)
             deleted = false;
-        return userRepository.findUsersByFilters(fullname, username, email, rol, deleted);
+
+        try (Stream<User> users = userRepository.streamUsersByFilters(likeLiteral(fullname), likeLiteral(username),
+                likeLiteral(email), rol, deleted)) {
+            users.forEach(user -> {
+                consumer.accept(user);
+                // Detach each row so the persistence context stays empty regardless of table size
+                entityManager.detach(user);
+            });
+        }
     }
 
     // Get a user by id
     public User getUser(String id) throws OperationException {
-        User user = userRepository.findById(id).orElse(null);
+        User user = userCache.get(id, key -> userRepository.findById(key).orElse(null));
 
         if (user == null)
             throw new OperationException(404, "User not found");
@@ -36,32 +146,107 @@ public class UserService {
     }
 
     // Create a new user
+    @Transactional
     public User createUser(User user) throws OperationException {
-        // Check if the user already exists
-        if (userRepository.findById(user.getId()).isPresent()) {
-            throw new OperationException(400, "User already exists");
+        user.setDeleted(false);
+        user.setVersion(0L);
+
+        // Single insert: the database rejects duplicate ids, emails and usernames atomically
+        try {
+            userRepository.insertUser(user.getId(), user.getEmail(), user.getFullname(), user.getUsername(),
+                    user.getRol(), user.getDeleted());
+        } catch (DataIntegrityViolationException e) {
+            throw translateIntegrityViolation(e, "User could not be created");
+        } catch (Exception e) {
+            log.error("User {} could not be created", user.getId(), e);
+            throw new OperationException(500, "User could not be created");
         }
 
-        // Check if valid email and username are provided
-        if (user.getEmail() != null && userRepository.findByEmail(user.getEmail()).isPresent()) {
-            throw new OperationException(400, "Email already in use");
+        notificationOutbox.userCreated(user);
+        afterCommit(() -> {
+            userSearchIndex.put(user);
+            adminRoster.apply(user);
+        });
+        return user;
+    }
+
+    // Create many users at once: uniqueness is checked with one set-based query and the valid
+    // users are inserted with JDBC batches in a single transaction. One result per input, in order.
+    @Transactional
+    public List<BatchResultDTO<User>> createUsers(List<User> users) throws OperationException {
+        if (users == null || users.isEmpty())
+            throw new OperationException(400, "At least one user is required");
+        if (users.size() > MAX_BATCH_SIZE)
+            throw new OperationException(400, "A batch can contain at most " + MAX_BATCH_SIZE + " users");
+
+        Set<String> ids = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> usernames = new HashSet<>();
+        for (User user : users) {
+            if (user.getId() != null) ids.add(user.getId());
+            if (user.getEmail() != null) emails.add(user.getEmail());
+            if (user.getUsername() != null) usernames.add(user.getUsername());
         }
 
-        if (user.getUsername() != null && userRepository.findByUsername(user.getUsername()).isPresent()) {
-            throw new OperationException(400, "Username already in use");
+        Set<String> takenIds = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        Set<String> takenUsernames = new HashSet<>();
+        for (User existing : userRepository.findConflicting(ids, emails, usernames)) {
+            takenIds.add(existing.getId());
+            takenEmails.add(existing.getEmail());
+            takenUsernames.add(existing.getUsername());
         }
 
-        user.setDeleted(false);
+        // Keys are claimed once an item is accepted, which also rejects duplicates inside the batch
+        // itself without letting a rejected item block a later valid one
+        List<BatchResultDTO<User>> results = new ArrayList<>(users.size());
+        List<User> accepted = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            String error = validationError(user);
+            if (error == null) {
+                if (takenIds.contains(user.getId()))
+                    error = "User already exists";
+                else if (takenEmails.contains(user.getEmail()))
+                    error = "Email already in use";
+                else if (takenUsernames.contains(user.getUsername()))
+                    error = "Username already in use";
+            }
+
+            if (error != null) {
+                results.add(new BatchResultDTO<>(i, 400, error, null));
+            } else {
+                takenIds.add(user.getId());
+                takenEmails.add(user.getEmail());
+                takenUsernames.add(user.getUsername());
+                user.setDeleted(false);
+                user.setVersion(0L);
+                accepted.add(user);
+                results.add(new BatchResultDTO<>(i, 201, "User created", user));
+            }
+        }
 
-        try {
-            return userRepository.save(user);
-        } catch (Exception e) {
-            System.out.println(e.getMessage());
-            throw new OperationException(500, "User could not be created");
+        if (!accepted.isEmpty()) {
+            try {
+                userRepository.insertUsers(accepted);
+            } catch (DataIntegrityViolationException e) {
+                // Another request claimed one of the keys after the conflict query; nothing was inserted
+                throw new OperationException(409, "Batch conflicts with concurrent changes, retry the request");
+            }
+            notificationOutbox.usersCreated(accepted);
         }
+
+        afterCommit(() -> {
+            for (User user : accepted) {
+                userSearchIndex.put(user);
+                adminRoster.apply(user);
+            }
+        });
+        return results;
     }
 
     // Update an existing user
+    @Transactional
     public User updateUser(String id, User user) throws OperationException {
         User updatedUser = userRepository.findById(id).orElse(null);
 
@@ -79,6 +264,7 @@ public class UserService {
         }
 
         // Update user
+        String previousRol = updatedUser.getRol();
         if (user.getEmail() != null)
             updatedUser.setEmail(user.getEmail());
 
@@ -91,10 +277,52 @@ public class UserService {
         if(user.getRol() != null)
             updatedUser.setRol(user.getRol());
 
-        return userRepository.save(updatedUser);
+        User savedUser = userRepository.save(updatedUser);
+        // Listeners run synchronously, inside this transaction, with the role before and after
+        if (!Objects.equals(previousRol, savedUser.getRol()))
+            eventPublisher.publishEvent(new UserRoleChangedEvent(savedUser, previousRol, savedUser.getRol()));
+        afterCommit(() -> {
+            userCache.invalidate(id);
+            userSearchIndex.put(savedUser);
+            adminRoster.apply(savedUser);
+        });
+        return savedUser;
+    }
+
+    // Partial update in one UPDATE of the supplied email, username and fullname, applied only if the
+    // user is still at the version the client read; returns the new version. Duplicates are rejected
+    // by the unique constraints. The role stays with updateUser, which needs the previous role.
+    @Transactional
+    public long patchUser(String id, long version, User changes) throws OperationException {
+        if (changes.getRol() != null)
+            throw new OperationException(400, "rol cannot be changed with PATCH, use PUT");
+        if (changes.getEmail() == null && changes.getUsername() == null && changes.getFullname() == null)
+            throw new OperationException(400, "At least one of email, username or fullname is required");
+        String error = fieldError(changes);
+        if (error != null)
+            throw new OperationException(400, error);
+
+        int updated;
+        try {
+            updated = userRepository.patch(id, version, changes);
+        } catch (DataIntegrityViolationException e) {
+            throw translateIntegrityViolation(e, "User could not be updated");
+        }
+        if (updated == 0)
+            throw userRepository.existsById(id)
+                    ? new OperationException(409, "User was modified by another request")
+                    : new OperationException(404, "User not found");
+
+        afterCommit(() -> {
+            userCache.invalidate(id);
+            userSearchIndex.patch(id, changes.getFullname(), changes.getUsername(), changes.getEmail());
+            adminRoster.updateEmail(id, changes.getEmail());
+        });
+        return version + 1;
     }
 
     // Delete a user
+    @Transactional
     public User deleteUser(String id) throws OperationException {
         User user = userRepository.findById(id).orElse(null);
 
@@ -105,10 +333,18 @@ public class UserService {
             throw new OperationException(404, "User account is already deleted");
 
         user.setDeleted(true);
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        notificationOutbox.userDeleted(savedUser);
+        afterCommit(() -> {
+            userCache.invalidate(id);
+            userSearchIndex.put(savedUser);
+            adminRoster.apply(savedUser);
+        });
+        return savedUser;
     }
 
     // Restore a deleted user
+    @Transactional
     public User restoreUser(String id) throws OperationException {
         User user = userRepository.findById(id).orElse(null);
 
@@ -117,12 +353,20 @@ public class UserService {
 
         if(user.getDeleted()) {
             user.setDeleted(false);
-            return userRepository.save(user);
+            User savedUser = userRepository.save(user);
+            notificationOutbox.userRestored(savedUser);
+            afterCommit(() -> {
+                userCache.invalidate(id);
+                userSearchIndex.put(savedUser);
+                adminRoster.apply(savedUser);
+            });
+            return savedUser;
         }
         return user;
     }
 
     // Delete a user permanently
+    @Transactional
     public void deletePermanentlyUser(String id) throws OperationException {
         User user = userRepository.findById(id).orElse(null);
 
@@ -130,16 +374,115 @@ public class UserService {
             throw new OperationException(404, "User not found");
 
         userRepository.delete(user);
+        notificationOutbox.userPurged(user);
+        afterCommit(() -> {
+            userCache.invalidate(id);
+            userSearchIndex.remove(id);
+            adminRoster.remove(id);
+        });
+    }
+
+    // Load the admin roster once; afterwards it is kept current by the write methods above
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAdminRoster() {
+        adminRoster.reset(userRepository.findUsersByFilters(null, null, null, "admin", false));
     }
 
     public String[] getAllAdminEmails() {
-        List<User> users = userRepository.findUsersByFilters(null, null, null, "admin", false);
-        String[] emails = new String[users.size()];
+        return adminRoster.emails();
+    }
 
-        for (int i = 0; i < users.size(); i++) {
-            emails[i] = users.get(i).getEmail();
+    // Refresh the in-memory views (cache, search index, admin roster) only once the change is
+    // committed, so concurrent readers never cache a state that may still roll back
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // First reason the user cannot be stored as given, null when it is valid. Mirrors the column
+    // definitions of User so bad items are rejected before reaching the database.
+    static String validationError(User user) {
+        if (user.getId() == null) return "User id is required";
+        if (user.getEmail() == null) return "email is required";
+        if (user.getFullname() == null) return "fullname is required";
+        if (user.getUsername() == null) return "username is required";
+        if (user.getRol() == null) return "rol is required";
+        return fieldError(user);
+    }
+
+    // Same checks for the fields that are present, as in a partial update
+    private static String fieldError(User user) {
+        if (user.getId() != null && user.getId().length() > 36)
+            return "User id is longer than 36 characters";
+        if (user.getEmail() != null && user.getEmail().length() > 45)
+            return "email is longer than 45 characters";
+        if (user.getFullname() != null && user.getFullname().length() > 100)
+            return "fullname is longer than 100 characters";
+        if (user.getUsername() != null && user.getUsername().length() > 20)
+            return "username is longer than 20 characters";
+        if (user.getRol() != null && user.getRol().length() > 45)
+            return "rol is longer than 45 characters";
+        return null;
+    }
+
+    // Map a violated unique constraint to the same errors the pre-insert checks used to raise, and a
+    // NOT NULL violation (reported by Hibernate with the column as constraint name) to the missing field;
+    // anything else is a server error reported with the caller's message
+    private static OperationException translateIntegrityViolation(DataIntegrityViolationException e, String failure) {
+        ConstraintViolationException violation = null;
+        for (Throwable cause = e; cause != null && violation == null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException constraintViolation)
+                violation = constraintViolation;
+        }
+
+        if (violation != null && violation.getConstraintName() != null) {
+            String constraint = violation.getConstraintName();
+            if (UNIQUE_VIOLATION.equals(violation.getSQLState())) {
+                switch (constraint) {
+                    case "user_pkey":
+                        return new OperationException(400, "User already exists");
+                    case "user_email_key":
+                        return new OperationException(400, "Email already in use");
+                    case "user_username_key":
+                        return new OperationException(400, "Username already in use");
+                    default:
+                        break;
+                }
+            } else if (NOT_NULL_VIOLATION.equals(violation.getSQLState())) {
+                return new OperationException(400, constraint + " is required");
+            }
         }
 
-        return emails;
+        log.error("Unexpected integrity violation saving a user", e);
+        return new OperationException(500, failure);
+    }
+
+    // Escape the LIKE wildcards of a substring filter so '%' and '_' match themselves, as they do in the
+    // in-memory index; the repository queries use '!' as escape character
+    private static String likeLiteral(String value) {
+        return value == null ? null : value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private static String encodeCursor(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) throws OperationException {
+        if (cursor == null || cursor.isBlank())
+            return null;
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new OperationException(400, "Invalid cursor");
+        }
     }
 }
+
@@ -0,0 +1,28 @@
+package co.edu.javeriana.easymarket.usersservice.utils;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// Normalises the ids of a bulk request: nulls and duplicates are dropped, request order is kept
+public final class BulkIds {
+    private BulkIds() {
+    }
+
+    // Rejects an empty request and one with more than max distinct ids; action names what is done
+    // with them (e.g. "deleted") in the error
+    public static <T> Set<T> distinct(Collection<T> ids, int max, String action) {
+        Set<T> distinct = new LinkedHashSet<>();
+        if (ids != null) {
+            for (T id : ids) {
+                if (id != null)
+                    distinct.add(id);
+            }
+        }
+        if (distinct.isEmpty())
+            throw new OperationException(400, "At least one id is required");
+        if (distinct.size() > max)
+            throw new OperationException(400, "At most " + max + " ids can be " + action + " at once");
+        return distinct;
+    }
+}
@@ -0,0 +1,53 @@
+package co.edu.javeriana.easymarket.usersservice.utils;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Strong entity tags built from @Version attributes, so a conditional GET can be answered by
+// comparing versions before any mapping or serialization
+public final class ETags {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ETags() {
+    }
+
+    // Tag of a single resource: its version
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    // Tag of a collection: a 64-bit FNV-1a hash of the id and version of every element, in response
+    // order, so adding, removing, updating or reordering an element changes it
+    public static <T> String of(List<T> items, Function<T, ?> id, Function<T, Long> version) {
+        long hash = FNV_OFFSET;
+        for (T item : items) {
+            hash = mix(hash, id.apply(item).hashCode());
+            hash = mix(hash, version.apply(item));
+        }
+        return "\"" + items.size() + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    // Version named by an If-Match header holding a single tag produced by of(Long)
+    public static long version(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank())
+            throw new OperationException(428, "If-Match header with the ETag of the resource is required");
+        String tag = ifMatch.strip();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+        }
+        throw new OperationException(400, "If-Match must hold the ETag returned by GET");
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash = (hash ^ (value & 0xff)) * FNV_PRIME;
+            value >>>= 8;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,74 @@
+package co.edu.javeriana.easymarket.usersservice.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Fixed latitude/longitude grid of 0.1 degree cells (about 11 km north-south) used to index
+// addresses for proximity search. A cell id is row * COLUMNS + column, counted from (-90, -180), so
+// the cells of one latitude row are contiguous. schema.sql backfills grid_cell with the same formula.
+public final class GeoGrid {
+    public static final int CELLS_PER_DEGREE = 10;
+    public static final int COLUMNS = 360 * CELLS_PER_DEGREE;
+    static final int ROWS = 180 * CELLS_PER_DEGREE;
+    static final int MAX_CELLS = 1024;
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+    private static final BigDecimal CELLS = BigDecimal.valueOf(CELLS_PER_DEGREE);
+
+    private GeoGrid() {
+    }
+
+    // Exact decimal arithmetic so stored coordinates land in the same cell as the SQL backfill
+    public static long cell(BigDecimal latitude, BigDecimal longitude) {
+        int row = latitude.add(BigDecimal.valueOf(90)).multiply(CELLS).setScale(0, RoundingMode.FLOOR).intValue();
+        int column = longitude.add(BigDecimal.valueOf(180)).multiply(CELLS).setScale(0, RoundingMode.FLOOR).intValue();
+        return cell(row, column);
+    }
+
+    static long cell(int row, int column) {
+        return (long) Math.clamp(row, 0, ROWS) * COLUMNS + Math.clamp(column, 0, COLUMNS - 1);
+    }
+
+    // Cells that may contain points within the radius: a bounding box in rows and columns, with the
+    // columns wrapping around the antimeridian. Null when the box would hold more than MAX_CELLS
+    // cells (close to the poles), in which case the whole rows are scanned instead, see rowRange.
+    public static long[] cellsWithin(double latitude, double longitude, double radiusKm) {
+        double dLat = radiusKm / KM_PER_DEGREE;
+        double maxAbsLat = Math.min(90, Math.abs(latitude) + dLat);
+        double dLon = radiusKm / (KM_PER_DEGREE * Math.cos(Math.toRadians(maxAbsLat)));
+        if (!(dLon < 180) || (2 * dLat * CELLS_PER_DEGREE + 2) * (2 * dLon * CELLS_PER_DEGREE + 2) > MAX_CELLS)
+            return null;
+
+        int minRow = (int) Math.floor((latitude - dLat + 90) * CELLS_PER_DEGREE);
+        int maxRow = (int) Math.floor((latitude + dLat + 90) * CELLS_PER_DEGREE);
+        int minColumn = (int) Math.floor((longitude - dLon + 180) * CELLS_PER_DEGREE);
+        int maxColumn = (int) Math.floor((longitude + dLon + 180) * CELLS_PER_DEGREE);
+        minRow = Math.max(minRow, 0);
+        maxRow = Math.min(maxRow, ROWS);
+
+        long[] cells = new long[(maxRow - minRow + 1) * (maxColumn - minColumn + 1)];
+        int i = 0;
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++)
+                cells[i++] = cell(row, Math.floorMod(column, COLUMNS));
+        }
+        return cells;
+    }
+
+    // First and last cell of the latitude rows within the radius
+    public static long[] rowRange(double latitude, double radiusKm) {
+        double dLat = radiusKm / KM_PER_DEGREE;
+        int minRow = Math.max(0, (int) Math.floor((latitude - dLat + 90) * CELLS_PER_DEGREE));
+        int maxRow = Math.min(ROWS, (int) Math.floor((latitude + dLat + 90) * CELLS_PER_DEGREE));
+        return new long[]{cell(minRow, 0), cell(maxRow, COLUMNS - 1)};
+    }
+
+    // Great-circle distance (haversine)
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
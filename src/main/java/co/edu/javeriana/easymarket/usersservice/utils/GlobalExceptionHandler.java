@@ -1,14 +1,31 @@
 package co.edu.javeriana.easymarket.usersservice.utils;
 
 import co.edu.javeriana.easymarket.usersservice.dtos.Response;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.method.HandlerMethod;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
+    private final MeterRegistry meterRegistry;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @ExceptionHandler(OperationException.class)
-    public ResponseEntity<Response> handleOperationException(OperationException e) {
+    public ResponseEntity<Response> handleOperationException(OperationException e, HandlerMethod handler) {
+        // Counted by status code and by the endpoint that raised it, e.g. "UsersController.getUser"
+        Counter.builder("operation.exceptions")
+                .description("OperationExceptions returned to clients")
+                .tag("code", String.valueOf(e.getCode()))
+                .tag("operation", handler == null ? "unknown"
+                        : handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName())
+                .register(meterRegistry)
+                .increment();
         return ResponseEntity.status(e.getCode()).body(new Response(e.getCode(), e.getMessage()));
     }
 }
@@ -0,0 +1,60 @@
+package co.edu.javeriana.easymarket.usersservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionControlledDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    /**
+     * Test that no connection is requested from the pool while every permit is held
+     */
+    @Test
+    void getConnection_WaitsForPermit() throws SQLException {
+        // Arrange
+        when(target.getConnection()).thenReturn(connection);
+        AdmissionControlledDataSource dataSource = new AdmissionControlledDataSource(target, 1, Duration.ofMillis(50));
+        Connection first = dataSource.getConnection();
+
+        // Act & Assert
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        verify(target, times(1)).getConnection();
+
+        first.close();
+        first.close();
+        assertNotNull(dataSource.getConnection());
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        verify(connection, times(2)).close();
+    }
+
+    /**
+     * Test that the permit is returned when the pool fails to provide a connection
+     */
+    @Test
+    void getConnection_ReleasesPermitOnFailure() throws SQLException {
+        // Arrange
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted")).thenReturn(connection);
+        AdmissionControlledDataSource dataSource = new AdmissionControlledDataSource(target, 1, Duration.ofMillis(50));
+
+        // Act & Assert
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertNotNull(dataSource.getConnection());
+    }
+}
@@ -0,0 +1,163 @@
+package co.edu.javeriana.easymarket.usersservice.config;
+
+import co.edu.javeriana.easymarket.usersservice.services.MailDispatcher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class NotificationExecutorConfigTest {
+
+    private final NotificationExecutorConfig config = new NotificationExecutorConfig();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ThreadPoolTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (executor != null)
+            executor.shutdown();
+    }
+
+    /**
+     * Test that an overflowing task runs on the caller thread and is counted as rejected
+     */
+    @Test
+    void callerRuns_WhenQueueIsFull() throws InterruptedException {
+        // Arrange
+        executor = saturatedExecutor(false, "caller-runs");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        config.notificationExecutorMetrics(executor).bindTo(registry);
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+
+        // Act
+        executor.execute(() -> ranOn.set(Thread.currentThread()));
+
+        // Assert
+        assertEquals(Thread.currentThread(), ranOn.get());
+        assertEquals(1.0, registry.get("notifications.executor.rejected").functionCounter().count());
+        assertEquals(1.0, registry.get("notifications.executor.queued").gauge().value());
+        assertEquals(1.0, registry.get("notifications.executor.active").gauge().value());
+    }
+
+    /**
+     * Test that the discard policy drops overflowing tasks
+     */
+    @Test
+    void discard_WhenQueueIsFull() throws InterruptedException {
+        // Arrange
+        executor = saturatedExecutor(false, "discard");
+        AtomicBoolean ran = new AtomicBoolean();
+
+        // Act
+        executor.execute(() -> ran.set(true));
+        release.countDown();
+        executor.shutdown();
+
+        // Assert
+        assertTrue(executor.getThreadPoolExecutor().awaitTermination(5, TimeUnit.SECONDS));
+        assertFalse(ran.get());
+    }
+
+    /**
+     * Test that the abort policy rejects overflowing tasks with an exception
+     */
+    @Test
+    void abort_WhenQueueIsFull() throws InterruptedException {
+        // Arrange
+        executor = saturatedExecutor(true, "abort");
+
+        // Act & Assert
+        assertThrows(TaskRejectedException.class, () -> executor.execute(() -> { }));
+    }
+
+    /**
+     * Test that an unknown overflow policy is rejected at startup
+     */
+    @Test
+    void overflowPolicy_Unknown() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> NotificationExecutorConfig.overflowPolicy("block"));
+    }
+
+    /**
+     * Test that on shutdown the executor drains before the mail dispatcher stops, so queued tasks can still send
+     */
+    @Test
+    void shutdown_DrainsExecutorBeforeDispatcher() {
+        // Arrange
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        MimeMessage message = new MimeMessage(Session.getInstance(new Properties()));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withConfiguration(AutoConfigurations.of(TaskExecutionAutoConfiguration.class))
+            .withUserConfiguration(NotificationExecutorConfig.class)
+            .withBean(JavaMailSender.class, () -> mailSender)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withBean(MailDispatcher.BEAN_NAME, MailDispatcher.class, () -> new MailDispatcher(mailSender, 10,
+                Duration.ofMillis(10), Duration.ofMinutes(1), 100, Duration.ofSeconds(30), new SimpleMeterRegistry()))
+            .run(context -> {
+                ThreadPoolTaskExecutor notificationExecutor =
+                    context.getBean(NotificationExecutorConfig.NOTIFICATION_EXECUTOR, ThreadPoolTaskExecutor.class);
+                MailDispatcher mailDispatcher = context.getBean(MailDispatcher.class);
+
+                // Act: the task is still waiting when the context closes
+                notificationExecutor.execute(() -> {
+                    try {
+                        Thread.sleep(200);
+                        mailDispatcher.enqueue(message);
+                    } catch (Throwable e) {
+                        failure.set(e);
+                    }
+                });
+            });
+
+        // Assert
+        assertNull(failure.get());
+        verify(mailSender).send(any(MimeMessage[].class));
+    }
+
+    // One worker blocked on the latch and one task waiting in the queue
+    private ThreadPoolTaskExecutor saturatedExecutor(boolean virtualThreads, String overflow) throws InterruptedException {
+        ThreadPoolTaskExecutor executor = config.notificationExecutor(virtualThreads, 1, 1, 1, overflow, Duration.ofSeconds(5));
+        executor.initialize();
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(this::awaitRelease);
+        return executor;
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
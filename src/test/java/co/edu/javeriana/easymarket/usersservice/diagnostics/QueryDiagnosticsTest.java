@@ -0,0 +1,96 @@
+package co.edu.javeriana.easymarket.usersservice.diagnostics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QueryDiagnosticsTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    /**
+     * Test that statements run inside a repository method are counted, with their rows, under that method
+     */
+    @Test
+    void record_AttributesStatementsToRepositoryMethod() throws Throwable {
+        // Arrange
+        QueryDiagnostics diagnostics = new QueryDiagnostics(Duration.ofHours(1), 16, 4);
+        DataSource dataSource = new QueryDiagnosticsDataSource(target, diagnostics);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false, false);
+
+        // Act
+        diagnostics.withinRepositoryMethod("UserRepository.findAllById", () -> {
+            try (Connection c = dataSource.getConnection(); PreparedStatement ps = c.prepareStatement("select 1")) {
+                ps.setString(1, "a");
+                for (int i = 0; i < 2; i++) {
+                    ResultSet rs = ps.executeQuery();
+                    while (rs.next()) {
+                        // Read every row
+                    }
+                }
+            }
+            return null;
+        });
+        dataSource.getConnection().prepareStatement("update x").executeUpdate();
+
+        // Assert
+        QueryDiagnostics.Report report = diagnostics.report();
+        QueryDiagnostics.MethodReport findAll = report.repositoryMethods().get("UserRepository.findAllById");
+        assertEquals(1, findAll.invocations());
+        assertEquals(2, findAll.statements());
+        assertEquals(2.0, findAll.statementsPerInvocation());
+        assertEquals(2, findAll.rowsFetched());
+        assertNotNull(findAll.p99Ms());
+        assertEquals(1, report.repositoryMethods().get(QueryDiagnostics.UNATTRIBUTED).statements());
+        assertTrue(report.slowest().isEmpty());
+    }
+
+    /**
+     * Test that statements over the threshold are kept with their parameter shape, slowest first
+     */
+    @Test
+    void record_KeepsSlowStatements() {
+        // Arrange
+        QueryDiagnostics diagnostics = new QueryDiagnostics(Duration.ofMillis(100), 16, 2);
+
+        // Act
+        diagnostics.record("select fast", "()", Duration.ofMillis(5).toNanos());
+        diagnostics.record("select a", "(String)", Duration.ofMillis(150).toNanos());
+        diagnostics.record("select b", "(String, null)", Duration.ofMillis(300).toNanos());
+        diagnostics.record("select c", "(Integer)", Duration.ofMillis(200).toNanos()).rowFetched();
+
+        // Assert
+        var slowest = diagnostics.report().slowest();
+        assertEquals(2, slowest.size());
+        assertEquals("select b", slowest.get(0).sql());
+        assertEquals("(String, null)", slowest.get(0).parameters());
+        assertEquals("select c", slowest.get(1).sql());
+        assertEquals(1, slowest.get(1).rows().get());
+        assertEquals("-", slowest.get(1).handler());
+    }
+}
@@ -0,0 +1,120 @@
+package co.edu.javeriana.easymarket.usersservice.mappers;
+
+import co.edu.javeriana.easymarket.usersservice.dtos.AddressDTO;
+import co.edu.javeriana.easymarket.usersservice.dtos.PaymentMethodDTO;
+import co.edu.javeriana.easymarket.usersservice.dtos.UserDTO;
+import co.edu.javeriana.easymarket.usersservice.model.Address;
+import co.edu.javeriana.easymarket.usersservice.model.PaymentMethod;
+import co.edu.javeriana.easymarket.usersservice.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The hand-written mappers must produce exactly what the former ModelMapper
+ * configuration (skip-null enabled) produced
+ */
+class MappersTest {
+
+    private ModelMapper modelMapper;
+    private final UserMapper userMapper = new UserMapper();
+    private final AddressMapper addressMapper = new AddressMapper();
+    private final PaymentMethodMapper paymentMethodMapper = new PaymentMethodMapper();
+
+    @BeforeEach
+    void setUp() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration().setSkipNullEnabled(true);
+    }
+
+    /**
+     * Test user conversions in both directions, including partially filled DTOs
+     */
+    @Test
+    void userMapper_MatchesModelMapper() {
+        // Arrange
+        User user = new User();
+        user.setId("1");
+        user.setUsername("testuser");
+        user.setFullname("Test User");
+        user.setEmail("test@example.com");
+        user.setRol("admin");
+        user.setDeleted(true);
+
+        UserDTO partial = new UserDTO();
+        partial.setFullname("Only Name");
+
+        // Act & Assert
+        assertThat(userMapper.userToUserDTO(user))
+            .usingRecursiveComparison().isEqualTo(modelMapper.map(user, UserDTO.class));
+        assertThat(userMapper.userDTOToUser(userMapper.userToUserDTO(user)))
+            .usingRecursiveComparison().isEqualTo(modelMapper.map(modelMapper.map(user, UserDTO.class), User.class));
+        assertThat(userMapper.userDTOToUser(partial))
+            .usingRecursiveComparison().isEqualTo(modelMapper.map(partial, User.class));
+    }
+
+    /**
+     * Test address conversions in both directions
+     */
+    @Test
+    void addressMapper_MatchesModelMapper() {
+        // Arrange
+        Address address = new Address();
+        address.setId(1);
+        address.setUserId("user123");
+        address.setName("Home");
+        address.setAddress("123 Main St");
+        address.setDetails("Apartment 4B");
+        address.setLatitude(BigDecimal.valueOf(40.7128));
+        address.setLongitude(BigDecimal.valueOf(-74.0060));
+
+        AddressDTO partial = new AddressDTO();
+        partial.setName("Work");
+
+        // Act & Assert
+        assertThat(addressMapper.addressToAddressDTO(address))
+            .usingRecursiveComparison().isEqualTo(modelMapper.map(address, AddressDTO.class));
+        assertThat(addressMapper.addressDTOToAddress(addressMapper.addressToAddressDTO(address)))
+            .usingRecursiveComparison().isEqualTo(modelMapper.map(modelMapper.map(address, AddressDTO.class), Address.class));
+        assertThat(addressMapper.addressDTOToAddress(partial))
+            .usingRecursiveComparison().isEqualTo(modelMapper.map(partial, Address.class));
+    }
+
+    /**
+     * Test payment method conversions in both directions
+     */
+    @Test
+    void paymentMethodMapper_MatchesModelMapper() {
+        // Arrange
+        PaymentMethod paymentMethod = new PaymentMethod();
+        paymentMethod.setId(1);
+        paymentMethod.setUserId("user123");
+        paymentMethod.setCardNumber("4111111111111111");
+        paymentMethod.setEmail("test@example.com");
+        paymentMethod.setPhone("3001234567");
+        paymentMethod.setExpiryDate("122030");
+        paymentMethod.setCardHolderName("Test User");
+        paymentMethod.setCity("Bogota");
+        paymentMethod.setFirstLine("Calle 1");
+        paymentMethod.setSecondLine("Apto 2");
+        paymentMethod.setCountry("Colombia");
+        paymentMethod.setPostalCode("110111");
+        paymentMethod.setStateName("Cundinamarca");
+
+        PaymentMethodDTO partial = new PaymentMethodDTO();
+        partial.setCity("Medellin");
+
+        // Act & Assert
+        assertThat(paymentMethodMapper.paymentMethodToPaymentMethodDTO(paymentMethod))
+            .usingRecursiveComparison().isEqualTo(modelMapper.map(paymentMethod, PaymentMethodDTO.class));
+        assertThat(paymentMethodMapper.paymentMethodDTOToPaymentMethod(paymentMethodMapper.paymentMethodToPaymentMethodDTO(paymentMethod)))
+            .usingRecursiveComparison()
+            .isEqualTo(modelMapper.map(modelMapper.map(paymentMethod, PaymentMethodDTO.class), PaymentMethod.class));
+        assertThat(paymentMethodMapper.paymentMethodDTOToPaymentMethod(partial))
+            .usingRecursiveComparison().isEqualTo(modelMapper.map(partial, PaymentMethod.class));
+    }
+}
@@ -0,0 +1,164 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import co.edu.javeriana.easymarket.usersservice.dtos.ImportResultDTO;
+import co.edu.javeriana.easymarket.usersservice.mappers.AddressMapper;
+import co.edu.javeriana.easymarket.usersservice.model.Address;
+import co.edu.javeriana.easymarket.usersservice.repository.AddressRepository;
+import co.edu.javeriana.easymarket.usersservice.repository.UserRepository;
+import co.edu.javeriana.easymarket.usersservice.utils.OperationException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AddressImportServiceTest {
+
+    @Mock
+    private AddressRepository addressRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private AddressImportService addressImportService;
+
+    // Copies of every chunk handed to the repository, the service reuses its chunk list
+    private final List<List<Address>> chunks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        addressImportService = new AddressImportService(addressRepository, userRepository, new AddressMapper(),
+                new ObjectMapper(), transactionManager, entityManager, 2);
+    }
+
+    /**
+     * Test NDJSON import: valid rows are stored in chunks, bad lines are reported with their number
+     */
+    @Test
+    void importAddresses_NdjsonInChunks() {
+        // Arrange
+        when(userRepository.existsById("user123")).thenReturn(true);
+        recordChunks();
+        String body = """
+                {"name":"Home","address":"123 Main St","details":"4B","latitude":40.7128,"longitude":-74.0060}
+                {"name":"Work","address":"1 Office Rd","details":"Floor 2","latitude":40.75,"longitude":-73.99}
+
+                {"name":"Broken",
+                {"name":"Cabin","address":"Lake Rd","details":"-","latitude":44.1,"longitude":-73.9}
+                {"name":"Nowhere","address":"?","details":"-","latitude":91,"longitude":0}
+                """;
+
+        // Act
+        ImportResultDTO result = addressImportService.importAddresses("user123", new StringReader(body),
+                AddressImportService.Format.NDJSON);
+
+        // Assert
+        assertEquals(6, result.lines());
+        assertEquals(3, result.imported());
+        assertEquals(2, result.failed());
+        assertEquals(4, result.errors().get(0).line());
+        assertTrue(result.errors().get(0).message().startsWith("invalid JSON"));
+        assertEquals(new ImportResultDTO.LineError(6, "latitude must be between -90 and 90"), result.errors().get(1));
+        assertEquals(List.of(2, 1), chunks.stream().map(List::size).toList());
+        assertEquals("user123", chunks.get(1).get(0).getUserId());
+        verify(entityManager, times(2)).clear();
+    }
+
+    /**
+     * Test CSV import: columns are matched by header name and quoted fields may contain commas
+     */
+    @Test
+    void importAddresses_Csv() {
+        // Arrange
+        when(userRepository.existsById("user123")).thenReturn(true);
+        recordChunks();
+        String body = "latitude,longitude,name,address,details\r\n"
+                + "4.6097,-74.0817,Home,\"Cra 7 # 40-62, Bogota\",\"Apt \"\"B\"\"\"\r\n"
+                + "north,-74.0817,Home,Cra 7,-\r\n"
+                + "4.6097,-74.0817,,Cra 7,-\r\n";
+
+        // Act
+        ImportResultDTO result = addressImportService.importAddresses("user123", new StringReader(body),
+                AddressImportService.Format.CSV);
+
+        // Assert
+        assertEquals(1, result.imported());
+        Address imported = chunks.get(0).get(0);
+        assertEquals("Cra 7 # 40-62, Bogota", imported.getAddress());
+        assertEquals("Apt \"B\"", imported.getDetails());
+        assertEquals(new BigDecimal("4.6097"), imported.getLatitude());
+        assertEquals(List.of(new ImportResultDTO.LineError(3, "latitude is not a number"),
+                new ImportResultDTO.LineError(4, "name is required")), result.errors());
+    }
+
+    /**
+     * Test that a chunk rejected by the database is reported and the import goes on
+     */
+    @Test
+    void importAddresses_ChunkRejected() {
+        // Arrange
+        when(userRepository.existsById("user123")).thenReturn(true);
+        when(addressRepository.saveAllAndFlush(anyList()))
+                .thenThrow(new DataIntegrityViolationException("fk_address_user"))
+                .thenReturn(List.of());
+        String body = "name,address,details,latitude,longitude\n"
+                + "A,a,-,1,1\nB,b,-,2,2\nC,c,-,3,3\n" + "D," + "x".repeat(5000) + ",-,4,4\n";
+
+        // Act
+        ImportResultDTO result = addressImportService.importAddresses("user123", new StringReader(body),
+                AddressImportService.Format.CSV);
+
+        // Assert
+        assertEquals(1, result.imported());
+        assertEquals(3, result.failed());
+        assertEquals(List.of(2L, 3L, 5L), result.errors().stream().map(ImportResultDTO.LineError::line).toList());
+        assertEquals("line is longer than 4096 characters", result.errors().get(2).message());
+    }
+
+    /**
+     * Test importing for a missing user or without the CSV columns
+     */
+    @Test
+    void importAddresses_Rejected() {
+        // Arrange
+        when(userRepository.existsById("missing")).thenReturn(false);
+        when(userRepository.existsById("user123")).thenReturn(true);
+
+        // Act & Assert
+        assertEquals(404, assertThrows(OperationException.class, () -> addressImportService.importAddresses(
+                "missing", new StringReader(""), AddressImportService.Format.NDJSON)).getCode());
+        OperationException exception = assertThrows(OperationException.class, () -> addressImportService.importAddresses(
+                "user123", new StringReader("name,address,latitude,longitude\n"), AddressImportService.Format.CSV));
+        assertEquals(400, exception.getCode());
+        assertEquals("CSV header is missing the details column", exception.getMessage());
+        verifyNoInteractions(addressRepository);
+    }
+
+    private void recordChunks() {
+        when(addressRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> {
+            List<Address> chunk = new ArrayList<>(invocation.getArgument(0));
+            chunks.add(chunk);
+            return chunk;
+        });
+    }
+}
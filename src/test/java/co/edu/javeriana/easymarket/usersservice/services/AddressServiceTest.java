@@ -1,19 +1,26 @@
 package co.edu.javeriana.easymarket.usersservice.services;
 
+import co.edu.javeriana.easymarket.usersservice.dtos.BatchResultDTO;
+import co.edu.javeriana.easymarket.usersservice.dtos.DeleteResultDTO;
 import co.edu.javeriana.easymarket.usersservice.model.Address;
 import co.edu.javeriana.easymarket.usersservice.repository.AddressRepository;
+import co.edu.javeriana.easymarket.usersservice.repository.UserRepository;
 import co.edu.javeriana.easymarket.usersservice.utils.OperationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -25,6 +32,9 @@ class AddressServiceTest {
     @Mock
     private AddressRepository addressRepository;
 
+    @Mock
+    private UserRepository userRepository;
+
     @InjectMocks
     private AddressService addressService;
 
@@ -62,6 +72,80 @@ class AddressServiceTest {
         assertEquals(testAddress.getUserId(), result.get(0).getUserId());
     }
 
+    /**
+     * Test creating many addresses: valid items are saved together, invalid ones are reported in place
+     */
+    @Test
+    void createAddresses_MixedBatch() {
+        // Arrange
+        Address incomplete = new Address();
+        incomplete.setName("Work");
+        when(userRepository.existsById("user123")).thenReturn(true);
+
+        // Act
+        List<BatchResultDTO<Address>> results = addressService.createAddresses("user123", List.of(testAddress, incomplete));
+
+        // Assert
+        assertEquals(201, results.get(0).status());
+        assertNull(results.get(0).item().getId());
+        assertEquals(400, results.get(1).status());
+        assertEquals("address is required", results.get(1).message());
+        verify(addressRepository).saveAllAndFlush(List.of(testAddress));
+    }
+
+    /**
+     * Test creating many addresses for a missing user
+     */
+    @Test
+    void createAddresses_UserNotFound() {
+        // Arrange
+        when(userRepository.existsById("user123")).thenReturn(false);
+
+        // Act & Assert
+        OperationException exception = assertThrows(OperationException.class,
+            () -> addressService.createAddresses("user123", List.of(testAddress)));
+        assertEquals(404, exception.getCode());
+        verify(addressRepository, never()).saveAllAndFlush(any());
+    }
+
+    /**
+     * Test nearby search: only addresses within the radius are returned, closest first
+     */
+    @Test
+    void findNearby_RankedByDistance() {
+        // Arrange
+        Address far = address(2, "40.9000", "-74.0060");   // about 21 km north
+        Address near = address(3, "40.7200", "-74.0060");  // about 0.8 km north
+        when(addressRepository.findByGridCellIn(anyCollection())).thenReturn(List.of(far, testAddress, near));
+
+        // Act
+        List<AddressService.Nearby> result = addressService.findNearby(40.7128, -74.0060, 5, null);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(0).address().getId());
+        assertEquals(0, result.get(0).distanceKm(), 1e-9);
+        assertEquals(3, result.get(1).address().getId());
+        assertEquals(0.8, result.get(1).distanceKm(), 0.01);
+    }
+
+    /**
+     * Test nearby search with an invalid radius or coordinates
+     */
+    @Test
+    void findNearby_InvalidParameters() {
+        // Act & Assert
+        assertEquals(400, assertThrows(OperationException.class,
+            () -> addressService.findNearby(40.7, -74.0, 0, null)).getCode());
+        assertEquals(400, assertThrows(OperationException.class,
+            () -> addressService.findNearby(40.7, -74.0, 51, null)).getCode());
+        assertEquals(400, assertThrows(OperationException.class,
+            () -> addressService.findNearby(91, -74.0, 5, null)).getCode());
+        assertEquals(400, assertThrows(OperationException.class,
+            () -> addressService.findNearby(40.7, -74.0, 5, 0)).getCode());
+        verifyNoInteractions(addressRepository);
+    }
+
     /**
      * Test creating address - successful case
      */
@@ -79,13 +163,46 @@ class AddressServiceTest {
         assertEquals(testAddress.getName(), result.getName());
     }
 
+    /**
+     * Test that an id sent by the client is ignored, so the address is inserted as a new row
+     */
+    @Test
+    void createAddress_IgnoresClientId() {
+        // Arrange
+        when(addressRepository.save(any(Address.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        addressService.createAddress(testAddress);
+
+        // Assert
+        ArgumentCaptor<Address> saved = ArgumentCaptor.forClass(Address.class);
+        verify(addressRepository).save(saved.capture());
+        assertNull(saved.getValue().getId());
+    }
+
+    /**
+     * Test creating address with a field that does not fit its column
+     */
+    @Test
+    void createAddress_InvalidField() {
+        // Arrange
+        testAddress.setName("x".repeat(46));
+
+        // Act & Assert
+        OperationException exception = assertThrows(OperationException.class,
+            () -> addressService.createAddress(testAddress));
+        assertEquals(400, exception.getCode());
+        assertEquals("name is longer than 45 characters", exception.getMessage());
+        verify(addressRepository, never()).save(any());
+    }
+
     /**
      * Test creating address - error case
      */
     @Test
     void createAddress_Error() {
         // Arrange
-        when(addressRepository.save(any(Address.class))).thenThrow(new RuntimeException("Database error"));
+        when(addressRepository.save(any(Address.class))).thenThrow(new DataIntegrityViolationException("fk_address_user"));
 
         // Act & Assert
         OperationException exception = assertThrows(OperationException.class, () -> {
@@ -196,13 +313,55 @@ class AddressServiceTest {
         assertEquals("User id not match", exception.getMessage());
     }
 
+    /**
+     * Test a partial update applied with one guarded UPDATE
+     */
+    @Test
+    void patchAddress_Success() {
+        // Arrange
+        Address changes = new Address();
+        changes.setName("Office");
+        when(addressRepository.patch(1, "user123", 5L, changes)).thenReturn(1);
+
+        // Act
+        long version = addressService.patchAddress("user123", 1, 5L, changes);
+
+        // Assert
+        assertEquals(6L, version);
+        verify(addressRepository, never()).findById(any());
+        verify(addressRepository, never()).existsByIdAndUserId(any(), any());
+    }
+
+    /**
+     * Test a partial update against a stale version, a missing address and a half-changed position
+     */
+    @Test
+    void patchAddress_Rejected() {
+        // Arrange
+        Address changes = new Address();
+        changes.setName("Office");
+        when(addressRepository.patch(anyInt(), eq("user123"), eq(5L), eq(changes))).thenReturn(0);
+        when(addressRepository.existsByIdAndUserId(1, "user123")).thenReturn(true);
+        when(addressRepository.existsByIdAndUserId(2, "user123")).thenReturn(false);
+        Address latitudeOnly = new Address();
+        latitudeOnly.setLatitude(BigDecimal.ONE);
+
+        // Act & Assert
+        assertEquals(409, assertThrows(OperationException.class,
+            () -> addressService.patchAddress("user123", 1, 5L, changes)).getCode());
+        assertEquals(404, assertThrows(OperationException.class,
+            () -> addressService.patchAddress("user123", 2, 5L, changes)).getCode());
+        assertEquals(400, assertThrows(OperationException.class,
+            () -> addressService.patchAddress("user123", 1, 5L, latitudeOnly)).getCode());
+    }
+
     /**
      * Test deleting address - successful case
      */
     @Test
     void deleteAddress_Success() {
         // Arrange
-        when(addressRepository.findByIdAndUserId(1, "user123")).thenReturn(Optional.of(testAddress));
+        when(addressRepository.deleteByIdAndUserId(1, "user123")).thenReturn(1);
 
         // Act
         assertDoesNotThrow(() -> {
@@ -210,7 +369,8 @@ class AddressServiceTest {
         });
 
         // Assert
-        verify(addressRepository).deleteById(1);
+        verify(addressRepository, never()).findByIdAndUserId(any(), any());
+        verify(addressRepository, never()).deleteById(any());
     }
 
     /**
@@ -219,7 +379,7 @@ class AddressServiceTest {
     @Test
     void deleteAddress_NotFound() {
         // Arrange
-        when(addressRepository.findByIdAndUserId(1, "user123")).thenReturn(Optional.empty());
+        when(addressRepository.deleteByIdAndUserId(1, "user123")).thenReturn(0);
 
         // Act & Assert
         OperationException exception = assertThrows(OperationException.class, () -> {
@@ -229,4 +389,30 @@ class AddressServiceTest {
         assertEquals(404, exception.getCode());
         assertEquals("Address not found", exception.getMessage());
     }
+
+    /**
+     * Test deleting many addresses: ids are de-duplicated and removed with one statement
+     */
+    @Test
+    void deleteAddresses() {
+        // Arrange
+        when(addressRepository.deleteByUserIdAndIdIn("user123", Set.of(1, 2, 3))).thenReturn(2);
+
+        // Act
+        DeleteResultDTO result = addressService.deleteAddresses("user123", Arrays.asList(1, 2, 2, null, 3));
+
+        // Assert
+        assertEquals(new DeleteResultDTO(3, 2), result);
+        assertEquals(400, assertThrows(OperationException.class,
+            () -> addressService.deleteAddresses("user123", List.of())).getCode());
+    }
+
+    private static Address address(int id, String latitude, String longitude) {
+        Address address = new Address();
+        address.setId(id);
+        address.setUserId("user" + id);
+        address.setLatitude(new BigDecimal(latitude));
+        address.setLongitude(new BigDecimal(longitude));
+        return address;
+    }
 }
\ No newline at end of file
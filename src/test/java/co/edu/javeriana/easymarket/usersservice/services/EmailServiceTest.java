@@ -9,7 +9,14 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mail.MailSendException;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,6 +27,9 @@ class EmailServiceTest {
     @Mock
     private JavaMailSender mailSender;
 
+    @Mock
+    private MailDispatcher mailDispatcher;
+
     @Mock
     private MimeMessage mimeMessage;
 
@@ -28,7 +38,7 @@ class EmailServiceTest {
 
     /**
      * Test sending notification - successful case
-     * This test verifies that the email is properly constructed and sent
+     * This test verifies that the email is properly constructed and queued for sending
      */
     @Test
     void sendNotification_Success() throws MessagingException {
@@ -44,27 +54,29 @@ class EmailServiceTest {
         
         // Assert
         verify(mailSender).createMimeMessage();
-        verify(mailSender).send(mimeMessage);
+        verify(mailDispatcher).enqueue(mimeMessage);
     }
 
     /**
      * Test sending notification - exception handling
-     * This test verifies that mail sending exceptions are propagated
+     * This test verifies that a message rejected by the dispatcher (e.g. a full queue) does not stop the other recipients
      */
     @Test
     void sendNotification_HandlesException() {
         // Arrange
         String subject = "Test Subject";
-        String to = "recipient@example.com";
         String bodyContent = "This is a test email body";
+        MimeMessage second = mock(MimeMessage.class);
 
-        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-        doThrow(new MailSendException("Error sending email")).when(mailSender).send(mimeMessage);
-        
-        // Act & Assert - should throw exception
-        assertThrows(MailSendException.class, () -> {
-            emailService.sendNotification(subject, to, bodyContent);
-        });
+        when(mailSender.createMimeMessage()).thenReturn(mimeMessage, second);
+        doThrow(new MailSendException("Mail queue is full")).when(mailDispatcher).enqueue(mimeMessage);
+
+        // Act
+        assertDoesNotThrow(() -> emailService.sendNotification(subject,
+            List.of("first@example.com", "second@example.com"), bodyContent));
+
+        // Assert
+        verify(mailDispatcher).enqueue(second);
     }
 
     /**
@@ -86,9 +98,129 @@ class EmailServiceTest {
         // Assert
         // Capture and verify the subject formatting
         ArgumentCaptor<MimeMessage> messageCaptor = ArgumentCaptor.forClass(MimeMessage.class);
-        verify(mailSender).send(messageCaptor.capture());
+        verify(mailDispatcher).enqueue(messageCaptor.capture());
         
         // Additional verification that the message was created
         verify(mailSender).createMimeMessage();
     }
-}
\ No newline at end of file
+
+    /**
+     * Test sending one notification to several recipients
+     * This test verifies that one message per recipient is queued
+     */
+    @Test
+    void sendNotification_MultipleRecipients() {
+        // Arrange
+        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+
+        // Act
+        emailService.sendNotification("Test Subject", List.of("a@example.com", "b@example.com", "c@example.com"), "Body");
+
+        // Assert
+        verify(mailSender, times(3)).createMimeMessage();
+        verify(mailDispatcher, times(3)).enqueue(mimeMessage);
+    }
+
+    /**
+     * Test that delivering a notification returns once every message has been sent
+     */
+    @Test
+    void deliverNotification_WaitsForEveryMessage() {
+        // Arrange
+        EmailService delivering = new EmailService(mailSender, mailDispatcher, null, Duration.ofSeconds(5));
+        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+        when(mailDispatcher.submit(mimeMessage)).thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        assertDoesNotThrow(() -> delivering.deliverNotification("Test Subject", List.of("a@example.com", "b@example.com"), "Body"));
+
+        // Assert
+        verify(mailDispatcher, times(2)).submit(mimeMessage);
+    }
+
+    /**
+     * Test that delivering a notification fails when one of its messages could not be sent
+     */
+    @Test
+    void deliverNotification_FailsWhenAMessageIsNotSent() {
+        // Arrange
+        EmailService delivering = new EmailService(mailSender, mailDispatcher, null, Duration.ofSeconds(5));
+        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+        when(mailDispatcher.submit(mimeMessage))
+            .thenReturn(CompletableFuture.completedFuture(null))
+            .thenReturn(CompletableFuture.failedFuture(new MailSendException("Connection refused")));
+
+        // Act & Assert
+        assertThrows(MailSendException.class,
+            () -> delivering.deliverNotification("Test Subject", List.of("a@example.com", "b@example.com"), "Body"));
+    }
+
+    /**
+     * Test that delivering a notification gives up after the delivery timeout
+     */
+    @Test
+    void deliverNotification_TimesOut() {
+        // Arrange
+        EmailService delivering = new EmailService(mailSender, mailDispatcher, null, Duration.ofMillis(50));
+        when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
+        when(mailDispatcher.submit(mimeMessage)).thenReturn(new CompletableFuture<>());
+
+        // Act & Assert
+        assertThrows(MailSendException.class,
+            () -> delivering.deliverNotification("Test Subject", List.of("a@example.com"), "Body"));
+    }
+
+    /**
+     * Test that the precompiled layout renders exactly what the former formatted text block produced
+     */
+    @Test
+    void buildHtmlTemplate_MatchesFormattedLayout() {
+        // Arrange
+        String expected = """
+            <div style="font-family: Arial, sans-serif; color: #333;">
+                <div style="text-align: center; padding: 20px 0;">
+                    <img src="%s" alt="Logo" style="width: 200px;">
+                </div>
+                <div style="padding: 20px; background-color: #f9f9f9; border-radius: 8px; max-width: 600px; margin: auto;">
+                    <h2 style="color: #222;">%s</h2>
+                    <p style="font-size: 16px; line-height: 1.6;">%s</p>
+                </div>
+                <div style="font-size: 12px; color: #777; padding: 20px; text-align: center;">
+                    <hr style="margin: 20px 0;">
+                    <p>Este correo fue generado automáticamente por EasyMarket.</p>
+                    <p>Si no reconoces esta actividad, por favor reporta el incidente a <a href="mailto:seguridad@easymarket.com">seguridad@easymarket.com</a>.</p>
+                    <p>Por favor no respondas a este correo directamente.</p>
+                </div>
+            </div>
+            """.formatted("https://raw.githubusercontent.com/Easy-Market-SPL/.github/refs/heads/main/Banner.png",
+                "Test Subject", "This is a test email body");
+
+        // Act
+        String html = emailService.buildHtmlTemplate("Test Subject", "This is a test email body");
+
+        // Assert
+        assertEquals(expected, html);
+    }
+
+    /**
+     * Test that a classpath logo is embedded as an inline part referenced by content id
+     */
+    @Test
+    void createMessage_EmbedsInlineLogo() throws Exception {
+        // Arrange
+        EmailService withLogo = new EmailService(new JavaMailSenderImpl(), mailDispatcher,
+            new ClassPathResource("email/test-logo.png"), Duration.ofSeconds(5));
+        String html = withLogo.buildHtmlTemplate("Test Subject", "Body");
+
+        // Act
+        MimeMessage message = withLogo.createMessage("Test Subject", "recipient@example.com", html);
+        message.saveChanges();
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        message.writeTo(raw);
+
+        // Assert
+        assertTrue(html.contains("src=\"cid:easymarket-logo\""));
+        assertTrue(raw.toString().contains("Content-ID: <easymarket-logo>"));
+        assertTrue(raw.toString().contains("Content-Type: image/png"));
+    }
+}
@@ -0,0 +1,58 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmailTemplateTest {
+
+    /**
+     * Test rendering placeholders in any order, including repeated ones
+     */
+    @Test
+    void render_FillsPlaceholders() {
+        // Arrange
+        EmailTemplate template = EmailTemplate.compile("<h2>{{title}}</h2><p>{{ content }}</p><i>{{title}}</i>", "content", "title");
+
+        // Act
+        String html = template.render("Body", "Title");
+
+        // Assert
+        assertEquals("<h2>Title</h2><p>Body</p><i>Title</i>", html);
+        assertEquals("<h2>Other</h2><p>Text</p><i>Other</i>", template.render("Text", "Other"));
+    }
+
+    /**
+     * Test a template without placeholders
+     */
+    @Test
+    void render_StaticTemplate() {
+        // Arrange
+        EmailTemplate template = EmailTemplate.compile("<hr>");
+
+        // Act & Assert
+        assertEquals("<hr>", template.render());
+    }
+
+    /**
+     * Test that templates with unknown or unclosed placeholders are rejected when compiled
+     */
+    @Test
+    void compile_InvalidPlaceholders() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("{{name}}", "title"));
+        assertThrows(IllegalArgumentException.class, () -> EmailTemplate.compile("{{title", "title"));
+    }
+
+    /**
+     * Test that rendering with the wrong number of values fails
+     */
+    @Test
+    void render_WrongValueCount() {
+        // Arrange
+        EmailTemplate template = EmailTemplate.compile("{{a}}{{b}}", "a", "b");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> template.render("only one"));
+    }
+}
@@ -0,0 +1,243 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.time.Duration;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Dispatch against an embedded SMTP server
+ */
+class MailDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private JavaMailSenderImpl mailSender;
+    private MailDispatcher mailDispatcher;
+
+    @BeforeEach
+    void setUp() {
+        mailSender = spy(new JavaMailSenderImpl());
+        mailSender.setHost("localhost");
+        mailSender.setPort(greenMail.getSmtp().getPort());
+        mailDispatcher = new MailDispatcher(mailSender, 10, Duration.ofMillis(100), Duration.ofMinutes(1), 100, Duration.ofSeconds(30), registry);
+        mailDispatcher.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        mailDispatcher.stop();
+    }
+
+    /**
+     * Test that queued messages are delivered over a single connection
+     */
+    @Test
+    void enqueue_DeliversOverOneConnection() throws MessagingException {
+        // Act
+        for (int i = 0; i < 25; i++)
+            mailDispatcher.enqueue(message("user" + i + "@example.com"));
+
+        // Assert
+        assertTrue(greenMail.waitForIncomingEmail(5000, 25));
+        assertEquals(25, greenMail.getReceivedMessages().length);
+        verify(mailSender, times(1)).getSession();
+        verify(mailSender, never()).send(any(MimeMessage[].class));
+    }
+
+    /**
+     * Test that the connection is kept open between batches
+     */
+    @Test
+    void enqueue_ReusesConnectionAcrossBatches() throws MessagingException {
+        // Arrange
+        mailDispatcher.enqueue(message("first@example.com"));
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+
+        // Act
+        mailDispatcher.enqueue(message("second@example.com"));
+
+        // Assert
+        assertTrue(greenMail.waitForIncomingEmail(5000, 2));
+        verify(mailSender, times(1)).getSession();
+    }
+
+    /**
+     * Test that a dropped connection is reopened and the message still delivered
+     */
+    @Test
+    void enqueue_ReconnectsAfterServerRestart() throws MessagingException, InterruptedException {
+        // Arrange
+        mailDispatcher.enqueue(message("first@example.com"));
+        assertTrue(greenMail.waitForIncomingEmail(5000, 1));
+        greenMail.reset();
+
+        // Act
+        mailDispatcher.enqueue(message("second@example.com"));
+
+        // Assert
+        // The restart may cut the first send before its acknowledgement, so "first" can be delivered
+        // again (at-least-once); only the arrival of "second" is checked
+        assertTrue(awaitRecipient("second@example.com"));
+    }
+
+    /**
+     * Test that a submitted message's future completes once the server has accepted it
+     */
+    @Test
+    void submit_CompletesWhenSent() throws Exception {
+        // Act
+        CompletableFuture<Void> sent = mailDispatcher.submit(message("user@example.com"));
+
+        // Assert
+        assertDoesNotThrow(() -> sent.get(5, TimeUnit.SECONDS));
+        assertEquals(1, greenMail.getReceivedMessages().length);
+    }
+
+    /**
+     * Test that a submitted message's future fails when the message cannot be sent
+     */
+    @Test
+    void submit_FailsWhenServerUnreachable() throws Exception {
+        // Arrange
+        JavaMailSenderImpl unreachable = new JavaMailSenderImpl();
+        unreachable.setHost("localhost");
+        unreachable.setPort(1);
+        MailDispatcher dispatcher = new MailDispatcher(unreachable, 10, Duration.ofMillis(10), Duration.ofMinutes(1), 100, Duration.ofSeconds(30), registry);
+        dispatcher.start();
+
+        try {
+            // Act
+            CompletableFuture<Void> sent = dispatcher.submit(message("user@example.com"));
+
+            // Assert
+            ExecutionException e = assertThrows(ExecutionException.class, () -> sent.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(MessagingException.class, e.getCause());
+        } finally {
+            dispatcher.stop();
+        }
+    }
+
+    /**
+     * Test that a message the server rejects over a healthy connection is failed without reconnecting
+     */
+    @Test
+    void submit_RejectionIsNotRetried() throws Exception {
+        // Arrange
+        mailDispatcher.submit(message("first@example.com")).get(5, TimeUnit.SECONDS);
+        MimeMessage noRecipients = message("second@example.com");
+        noRecipients.setRecipients(Message.RecipientType.TO, new Address[0]);
+
+        // Act
+        CompletableFuture<Void> sent = mailDispatcher.submit(noRecipients);
+
+        // Assert
+        ExecutionException e = assertThrows(ExecutionException.class, () -> sent.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(SendFailedException.class, e.getCause());
+        verify(mailSender, times(1)).getSession();
+        assertTrue(registry.find("mail.send").tags("operation", "retry").timers().isEmpty());
+        assertEquals(1.0, registry.get("mail.send.failures").tag("operation", "send").counter().count());
+    }
+
+    /**
+     * Test that stopping gives up on a worker stuck on the server and fails what is still queued
+     */
+    @Test
+    void stop_BoundedWhenServerHangs() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        JavaMailSender hanging = mock(JavaMailSender.class);
+        doAnswer(invocation -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new MailSendException("Interrupted", e);
+            }
+            return null;
+        }).when(hanging).send(any(MimeMessage[].class));
+        MailDispatcher dispatcher = new MailDispatcher(hanging, 1, Duration.ZERO, Duration.ofMinutes(1), 100,
+            Duration.ofMillis(200), registry);
+        dispatcher.start();
+        dispatcher.submit(message("first@example.com"));
+        verify(hanging, timeout(5000)).send(any(MimeMessage[].class));
+        CompletableFuture<Void> queued = dispatcher.submit(message("second@example.com"));
+
+        try {
+            // Act
+            assertTimeoutPreemptively(Duration.ofSeconds(5), dispatcher::stop);
+
+            // Assert
+            assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * Test that stopping the dispatcher sends what is still queued, and that sends and rejections are measured
+     */
+    @Test
+    void stop_DrainsQueue() throws MessagingException, InterruptedException {
+        // Arrange
+        for (int i = 0; i < 5; i++)
+            mailDispatcher.enqueue(message("user" + i + "@example.com"));
+
+        // Act
+        mailDispatcher.stop();
+
+        // Assert
+        assertEquals(5, greenMail.getReceivedMessages().length);
+        assertThrows(MailSendException.class, () -> mailDispatcher.enqueue(message("late@example.com")));
+        assertEquals(5, registry.get("mail.send").tags("operation", "send", "outcome", "success").timer().count());
+        assertEquals(1.0, registry.get("mail.send.failures").tag("operation", "enqueue").counter().count());
+    }
+
+    private static boolean awaitRecipient(String to) throws MessagingException, InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            for (MimeMessage received : greenMail.getReceivedMessages()) {
+                if (to.equals(received.getAllRecipients()[0].toString()))
+                    return true;
+            }
+            Thread.sleep(50);
+        }
+        return false;
+    }
+
+    private MimeMessage message(String to) throws MessagingException {
+        // Built on a separate session so getSession() on the sender is only called to connect
+        MimeMessage mimeMessage = new MimeMessage(Session.getInstance(new Properties()));
+        MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+        helper.setFrom("noreply@easymarket.com");
+        helper.setTo(to);
+        helper.setSubject("[EasyMarketSPL] Test");
+        helper.setText("<p>Test</p>", true);
+        return mimeMessage;
+    }
+}
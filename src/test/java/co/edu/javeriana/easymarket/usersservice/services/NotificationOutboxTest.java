@@ -0,0 +1,76 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import co.edu.javeriana.easymarket.usersservice.model.OutboxEvent;
+import co.edu.javeriana.easymarket.usersservice.model.OutboxEventType;
+import co.edu.javeriana.easymarket.usersservice.model.User;
+import co.edu.javeriana.easymarket.usersservice.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    /**
+     * Test that only employee creations and promotions out of customer are recorded
+     */
+    @Test
+    void records_OnlyNotifiableEvents() {
+        // Arrange
+        NotificationOutbox outbox = new NotificationOutbox(outboxEventRepository, true);
+        User customer = user("1", "customer");
+        User seller = user("2", "seller");
+
+        // Act
+        outbox.userCreated(customer);
+        outbox.userCreated(seller);
+        outbox.roleChanged(new UserRoleChangedEvent(seller, "admin", "seller"));
+        outbox.roleChanged(new UserRoleChangedEvent(seller, "customer", "seller"));
+
+        // Assert
+        ArgumentCaptor<OutboxEvent> events = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxEventRepository, times(2)).save(events.capture());
+        assertEquals(List.of(OutboxEventType.USER_CREATED, OutboxEventType.USER_ROLE_CHANGED),
+            events.getAllValues().stream().map(OutboxEvent::getType).toList());
+        assertEquals("customer", events.getAllValues().get(1).getPreviousRol());
+    }
+
+    /**
+     * Test that nothing is recorded while notifications are disabled
+     */
+    @Test
+    void records_NothingWhenDisabled() {
+        // Arrange
+        NotificationOutbox outbox = new NotificationOutbox(outboxEventRepository, false);
+
+        // Act
+        outbox.userDeleted(user("1", "seller"));
+        outbox.usersCreated(List.of(user("2", "admin")));
+
+        // Assert
+        verify(outboxEventRepository, never()).save(any());
+        verify(outboxEventRepository, never()).saveAll(any());
+    }
+
+    private static User user(String id, String rol) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("user" + id + "@example.com");
+        user.setUsername("user" + id);
+        user.setFullname("User " + id);
+        user.setRol(rol);
+        user.setDeleted(false);
+        return user;
+    }
+}
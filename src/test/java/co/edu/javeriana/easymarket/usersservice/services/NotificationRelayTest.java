@@ -0,0 +1,230 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import co.edu.javeriana.easymarket.usersservice.model.OutboxEvent;
+import co.edu.javeriana.easymarket.usersservice.model.OutboxEventType;
+import co.edu.javeriana.easymarket.usersservice.model.User;
+import co.edu.javeriana.easymarket.usersservice.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailSendException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    private final AdminRoster adminRoster = new AdminRoster();
+    private NotificationRelay notificationRelay;
+
+    @BeforeEach
+    void setUp() {
+        User admin = new User();
+        admin.setId("10");
+        admin.setEmail("admin@example.com");
+        admin.setRol("admin");
+        admin.setDeleted(false);
+        adminRoster.reset(List.of(admin));
+
+        // Lenient: the relay does not open a transaction before the roster is loaded
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+        notificationRelay = relay(false);
+    }
+
+    /**
+     * Test draining: one email per event type, batches deleted once relayed, until the outbox is empty
+     */
+    @Test
+    void drain_GroupsByTypeAndDeletesBatches() {
+        // Arrange
+        OutboxEvent created1 = event(1L, OutboxEventType.USER_CREATED, "1");
+        OutboxEvent created2 = event(2L, OutboxEventType.USER_CREATED, "2");
+        OutboxEvent deleted = event(3L, OutboxEventType.USER_DELETED, "3");
+        when(outboxEventRepository.findBatchForUpdate(anyCollection(), eq(PageRequest.of(0, 2))))
+            .thenReturn(List.of(created1, created2))
+            .thenReturn(List.of(deleted));
+
+        // Act
+        notificationRelay.drain();
+
+        // Assert
+        verify(emailService).deliverNotification(eq("Nuevos usuarios creados"), eq(List.of("admin@example.com")),
+            contains("Se han creado 2 nuevos usuarios empleados"));
+        verify(emailService).deliverNotification(eq("Usuario marcado como eliminado"), eq(List.of("admin@example.com")),
+            contains("3"));
+        verify(outboxEventRepository).deleteAllInBatch(List.of(created1, created2));
+        verify(outboxEventRepository).deleteAllInBatch(List.of(deleted));
+        verify(transactionManager, times(2)).commit(transactionStatus);
+    }
+
+    /**
+     * Test that a failed send rolls the batch back so it is retried
+     */
+    @Test
+    void drain_FailureKeepsEvents() {
+        // Arrange
+        OutboxEvent restored = event(1L, OutboxEventType.USER_RESTORED, "1");
+        when(outboxEventRepository.findBatchForUpdate(anyCollection(), eq(PageRequest.of(0, 2)))).thenReturn(List.of(restored));
+        doThrow(new MailSendException("Mail queue is full"))
+            .when(emailService).deliverNotification(anyString(), anyCollection(), anyString());
+
+        // Act
+        assertDoesNotThrow(() -> notificationRelay.drain());
+
+        // Assert
+        verify(outboxEventRepository, never()).deleteAllInBatch(any());
+        verify(transactionManager).rollback(transactionStatus);
+    }
+
+    /**
+     * Test that events are discarded without email when there are no admins
+     */
+    @Test
+    void drain_NoAdmins() {
+        // Arrange
+        adminRoster.reset(List.of());
+        OutboxEvent purged = event(1L, OutboxEventType.USER_PURGED, "1");
+        when(outboxEventRepository.findBatchForUpdate(anyCollection(), eq(PageRequest.of(0, 2)))).thenReturn(List.of(purged));
+
+        // Act
+        notificationRelay.drain();
+
+        // Assert
+        verify(emailService, never()).deliverNotification(anyString(), anyCollection(), anyString());
+        verify(outboxEventRepository).deleteAllInBatch(List.of(purged));
+    }
+
+    /**
+     * Test that nothing is read or deleted until the admin roster has been loaded
+     */
+    @Test
+    void drain_WaitsForAdminRoster() {
+        // Arrange
+        notificationRelay = new NotificationRelay(outboxEventRepository, emailService, new AdminRoster(), transactionManager, 2,
+            false, Duration.ofMinutes(15), 10, 50, Set.of(OutboxEventType.USER_ROLE_CHANGED));
+
+        // Act
+        notificationRelay.drain();
+
+        // Assert
+        verifyNoInteractions(outboxEventRepository, emailService, transactionManager);
+    }
+
+    /**
+     * Test digest mode: priority events go out at once, the rest wait while the digest is not due
+     */
+    @Test
+    void digest_HoldsEventsUntilDue() {
+        // Arrange
+        notificationRelay = relay(true);
+        OutboxEvent roleChanged = event(1L, OutboxEventType.USER_ROLE_CHANGED, "1");
+        when(outboxEventRepository.findBatchForUpdate(eq(EnumSet.of(OutboxEventType.USER_ROLE_CHANGED)), eq(PageRequest.of(0, 2))))
+            .thenReturn(List.of(roleChanged));
+        when(outboxEventRepository.countByTypeIn(anyCollection())).thenReturn(5L);
+        when(outboxEventRepository.findOldestCreatedAt(anyCollection())).thenReturn(Instant.now().minusSeconds(60));
+
+        // Act
+        notificationRelay.drain();
+
+        // Assert
+        verify(emailService).deliverNotification(eq("Cambio de rol de usuario"), anyCollection(), anyString());
+        verify(emailService, times(1)).deliverNotification(anyString(), anyCollection(), anyString());
+        verify(outboxEventRepository, times(1)).findBatchForUpdate(anyCollection(), any());
+    }
+
+    /**
+     * Test digest mode: reaching the threshold sends one summary listing every affected user
+     */
+    @Test
+    void digest_SendsSummaryAtThreshold() {
+        // Arrange
+        notificationRelay = relay(true);
+        List<OutboxEvent> events = List.of(
+            event(1L, OutboxEventType.USER_DELETED, "101"),
+            event(2L, OutboxEventType.USER_DELETED, "102"),
+            event(3L, OutboxEventType.USER_PURGED, "103"));
+        when(outboxEventRepository.findBatchForUpdate(eq(EnumSet.of(OutboxEventType.USER_ROLE_CHANGED)), eq(PageRequest.of(0, 2))))
+            .thenReturn(List.of());
+        when(outboxEventRepository.countByTypeIn(anyCollection())).thenReturn(10L);
+        when(outboxEventRepository.findBatchForUpdate(eq(EnumSet.complementOf(EnumSet.of(OutboxEventType.USER_ROLE_CHANGED))), eq(PageRequest.of(0, 50))))
+            .thenReturn(events);
+
+        // Act
+        notificationRelay.drain();
+
+        // Assert
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(emailService, times(1)).deliverNotification(eq("Resumen de actividad de usuarios"),
+            eq(List.of("admin@example.com")), message.capture());
+        assertTrue(message.getValue().contains("Usuarios marcados como eliminados (2)"));
+        assertTrue(message.getValue().contains("Usuarios eliminados permanentemente (1)"));
+        assertTrue(message.getValue().contains("101") && message.getValue().contains("102") && message.getValue().contains("103"));
+        verify(outboxEventRepository).deleteAllInBatch(events);
+    }
+
+    /**
+     * Test digest mode: the window elapsing since the oldest event makes the digest due
+     */
+    @Test
+    void digest_SendsSummaryAfterWindow() {
+        // Arrange
+        notificationRelay = relay(true);
+        OutboxEvent restored = event(1L, OutboxEventType.USER_RESTORED, "1");
+        when(outboxEventRepository.countByTypeIn(anyCollection())).thenReturn(1L);
+        when(outboxEventRepository.findOldestCreatedAt(anyCollection())).thenReturn(Instant.now().minus(Duration.ofMinutes(16)));
+        when(outboxEventRepository.findBatchForUpdate(anyCollection(), any())).thenReturn(List.of());
+        when(outboxEventRepository.findBatchForUpdate(anyCollection(), eq(PageRequest.of(0, 50))))
+            .thenReturn(List.of(restored));
+
+        // Act
+        notificationRelay.drain();
+
+        // Assert
+        verify(emailService).deliverNotification(eq("Resumen de actividad de usuarios"), anyCollection(), contains("Usuarios restaurados (1)"));
+        verify(outboxEventRepository).deleteAllInBatch(List.of(restored));
+    }
+
+    // Batches of 2 immediate events; digests of up to 50 events, due after 15 minutes or 10 events
+    private NotificationRelay relay(boolean digest) {
+        return new NotificationRelay(outboxEventRepository, emailService, adminRoster, transactionManager, 2,
+            digest, Duration.ofMinutes(15), 10, 50, Set.of(OutboxEventType.USER_ROLE_CHANGED));
+    }
+
+    private static OutboxEvent event(Long id, OutboxEventType type, String userId) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setType(type);
+        event.setUserId(userId);
+        event.setFullname("User " + userId);
+        event.setEmail("user" + userId + "@example.com");
+        event.setRol("seller");
+        event.setCreatedAt(Instant.now());
+        return event;
+    }
+}
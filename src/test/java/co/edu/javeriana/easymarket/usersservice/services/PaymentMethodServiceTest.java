@@ -1,5 +1,6 @@
 package co.edu.javeriana.easymarket.usersservice.services;
 
+import co.edu.javeriana.easymarket.usersservice.dtos.BatchResultDTO;
 import co.edu.javeriana.easymarket.usersservice.model.PaymentMethod;
 import co.edu.javeriana.easymarket.usersservice.repository.PaymentMethodRepository;
 import co.edu.javeriana.easymarket.usersservice.repository.UserRepository;
@@ -7,6 +8,7 @@ import co.edu.javeriana.easymarket.usersservice.utils.OperationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -114,6 +116,85 @@ class PaymentMethodServiceTest {
         assertEquals(testPaymentMethod.getUserId(), result.getUserId());
     }
 
+    /**
+     * Test that an id sent by the client is ignored, so the payment method is inserted as a new row
+     */
+    @Test
+    void createPaymentMethod_IgnoresClientId() {
+        // Arrange
+        when(userRepository.existsById("user123")).thenReturn(true);
+        when(paymentMethodRepository.save(any(PaymentMethod.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        paymentMethodService.createPaymentMethod(testPaymentMethod);
+
+        // Assert
+        ArgumentCaptor<PaymentMethod> saved = ArgumentCaptor.forClass(PaymentMethod.class);
+        verify(paymentMethodRepository).save(saved.capture());
+        assertNull(saved.getValue().getId());
+    }
+
+    /**
+     * Test creating many payment methods: only complete items are saved, each result keeps its position
+     */
+    @Test
+    void createPaymentMethods_MixedBatch() {
+        // Arrange
+        PaymentMethod complete = completePaymentMethod();
+        when(userRepository.existsById("user123")).thenReturn(true);
+
+        // Act
+        List<BatchResultDTO<PaymentMethod>> results =
+            paymentMethodService.createPaymentMethods("user123", List.of(testPaymentMethod, complete));
+
+        // Assert
+        assertEquals(400, results.get(0).status());
+        assertEquals("phone is required", results.get(0).message());
+        assertEquals(201, results.get(1).status());
+        assertEquals("user123", results.get(1).item().getUserId());
+        verify(paymentMethodRepository).saveAllAndFlush(List.of(complete));
+    }
+
+    /**
+     * Test creating many payment methods: values longer than their columns are rejected per item
+     */
+    @Test
+    void createPaymentMethods_RejectsValuesLongerThanColumns() {
+        // Arrange
+        PaymentMethod longCardNumber = completePaymentMethod();
+        longCardNumber.setCardNumber("41111111111111112");
+        PaymentMethod longPostalCode = completePaymentMethod();
+        longPostalCode.setPostalCode("11011100000");
+        PaymentMethod complete = completePaymentMethod();
+        when(userRepository.existsById("user123")).thenReturn(true);
+
+        // Act
+        List<BatchResultDTO<PaymentMethod>> results =
+            paymentMethodService.createPaymentMethods("user123", List.of(longCardNumber, longPostalCode, complete));
+
+        // Assert
+        assertEquals(List.of(400, 400, 201), results.stream().map(BatchResultDTO::status).toList());
+        assertEquals("cardNumber is longer than 16 characters", results.get(0).message());
+        assertEquals("postalCode is longer than 10 characters", results.get(1).message());
+        verify(paymentMethodRepository).saveAllAndFlush(List.of(complete));
+    }
+
+    private static PaymentMethod completePaymentMethod() {
+        PaymentMethod complete = new PaymentMethod();
+        complete.setCardNumber("4111111111111111");
+        complete.setEmail("test@example.com");
+        complete.setPhone("3001234567");
+        complete.setExpiryDate("122030");
+        complete.setCardHolderName("Test User");
+        complete.setCity("Bogota");
+        complete.setFirstLine("Calle 1");
+        complete.setSecondLine("Apto 2");
+        complete.setCountry("Colombia");
+        complete.setPostalCode("110111");
+        complete.setStateName("Cundinamarca");
+        return complete;
+    }
+
     /**
      * Test creating payment method - user not found case
      */
@@ -149,13 +230,33 @@ class PaymentMethodServiceTest {
         assertTrue(exception.getMessage().startsWith("Error creating payment method"));
     }
 
+    /**
+     * Test a partial update: new version on success, 409 when the payment method changed meanwhile
+     */
+    @Test
+    void patchPaymentMethod() {
+        // Arrange
+        PaymentMethod changes = new PaymentMethod();
+        changes.setCity("Medellin");
+        when(paymentMethodRepository.patch(1, "user123", 2L, changes)).thenReturn(1);
+        when(paymentMethodRepository.patch(1, "user123", 1L, changes)).thenReturn(0);
+        when(paymentMethodRepository.existsByIdAndUserId(1, "user123")).thenReturn(true);
+
+        // Act & Assert
+        assertEquals(3L, paymentMethodService.patchPaymentMethod("user123", 1, 2L, changes));
+        assertEquals(409, assertThrows(OperationException.class,
+            () -> paymentMethodService.patchPaymentMethod("user123", 1, 1L, changes)).getCode());
+        assertEquals(400, assertThrows(OperationException.class,
+            () -> paymentMethodService.patchPaymentMethod("user123", 1, 2L, new PaymentMethod())).getCode());
+    }
+
     /**
      * Test deleting payment method - successful case
      */
     @Test
     void deletePaymentMethod_Success() {
         // Arrange
-        when(paymentMethodRepository.findByIdAndUserId(1, "user123")).thenReturn(Optional.of(testPaymentMethod));
+        when(paymentMethodRepository.deleteByIdAndUserId(1, "user123")).thenReturn(1);
 
         // Act
         assertDoesNotThrow(() -> {
@@ -163,7 +264,8 @@ class PaymentMethodServiceTest {
         });
 
         // Assert
-        verify(paymentMethodRepository).deleteById(1);
+        verify(paymentMethodRepository, never()).findByIdAndUserId(any(), any());
+        verify(paymentMethodRepository, never()).deleteById(any());
     }
 
     /**
@@ -172,7 +274,7 @@ class PaymentMethodServiceTest {
     @Test
     void deletePaymentMethod_NotFound() {
         // Arrange
-        when(paymentMethodRepository.findByIdAndUserId(1, "user123")).thenReturn(Optional.empty());
+        when(paymentMethodRepository.deleteByIdAndUserId(1, "user123")).thenReturn(0);
 
         // Act & Assert
         OperationException exception = assertThrows(OperationException.class, () -> {
@@ -0,0 +1,65 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import co.edu.javeriana.easymarket.usersservice.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTest {
+
+    private final UserCache userCache = new UserCache(100, Duration.ofMinutes(10));
+
+    /**
+     * Test that a bulk load caches its rows and only loads the misses
+     */
+    @Test
+    void getAll_LoadsOnlyMisses() {
+        // Arrange
+        userCache.get("1", id -> user(id, 0L));
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        Map<String, User> users = userCache.getAll(List.of("1", "2"), missing -> {
+            loads.incrementAndGet();
+            assertEquals(Set.of("2"), missing);
+            return Map.of("2", user("2", 0L));
+        });
+
+        // Assert
+        assertEquals(Set.of("1", "2"), users.keySet());
+        assertEquals(1, loads.get());
+        assertSame(users.get("2"), userCache.get("2", id -> fail("Should have been cached")));
+    }
+
+    /**
+     * Test that a row read before a concurrent invalidation is returned but not cached
+     */
+    @Test
+    void getAll_InvalidatedDuringLoadIsNotCached() {
+        // Arrange
+        User stale = user("1", 0L);
+
+        // Act: the update commits and invalidates the user while the bulk query is running
+        Map<String, User> users = userCache.getAll(List.of("1"), missing -> {
+            userCache.invalidate("1");
+            return Map.of("1", stale);
+        });
+
+        // Assert
+        assertSame(stale, users.get("1"));
+        assertEquals(1L, userCache.get("1", id -> user(id, 1L)).getVersion());
+    }
+
+    private static User user(String id, long version) {
+        User user = new User();
+        user.setId(id);
+        user.setVersion(version);
+        return user;
+    }
+}
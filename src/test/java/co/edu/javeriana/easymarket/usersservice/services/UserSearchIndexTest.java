@@ -0,0 +1,118 @@
+package co.edu.javeriana.easymarket.usersservice.services;
+
+import co.edu.javeriana.easymarket.usersservice.model.User;
+import co.edu.javeriana.easymarket.usersservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSearchIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserSearchIndex userSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        userSearchIndex = new UserSearchIndex(userRepository, null, "memory");
+        when(userRepository.findUsersPageByFilters(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), any()))
+            .thenReturn(List.of(
+                user("a1", "Ana Maria Lopez", "anita", "ana@example.com", "customer", false),
+                user("b2", "Bruno Diaz", "bruno", "bruno@example.com", "admin", false),
+                user("c3", "Mariana Ruiz", "mruiz", "mariana@example.com", "customer", true)));
+        userSearchIndex.load();
+    }
+
+    private static User user(String id, String fullname, String username, String email, String rol, boolean deleted) {
+        User user = new User();
+        user.setId(id);
+        user.setFullname(fullname);
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setRol(rol);
+        user.setDeleted(deleted);
+        return user;
+    }
+
+    /**
+     * Test case-insensitive substring search combined with the deleted filter
+     */
+    @Test
+    void search_MatchesSubstringIgnoringCase() {
+        // Act
+        UserSearchIndex.SearchResult result = userSearchIndex.search("MARIA", null, null, null, false, null, 10, true);
+
+        // Assert
+        assertEquals(List.of("a1"), result.ids());
+        assertEquals(1L, result.total());
+    }
+
+    /**
+     * Test that pages resume strictly after the cursor id
+     */
+    @Test
+    void search_ResumesAfterCursor() {
+        // Act
+        UserSearchIndex.SearchResult result = userSearchIndex.search(null, null, "example", null, null, "a1", 10, false);
+
+        // Assert
+        assertEquals(List.of("b2", "c3"), result.ids());
+        assertNull(result.total());
+    }
+
+    /**
+     * Test that updates and removals are reflected in subsequent searches
+     */
+    @Test
+    void search_ReflectsPutAndRemove() {
+        // Act
+        userSearchIndex.put(user("b2", "Bruno Diaz", "bdiaz", "bruno@easymarket.com", "admin", false));
+        userSearchIndex.remove("a1");
+
+        // Assert
+        assertEquals(List.of(), userSearchIndex.search(null, "bruno", null, null, null, null, 10, false).ids());
+        assertEquals(List.of("b2"), userSearchIndex.search(null, null, "easymarket", null, null, null, 10, false).ids());
+        assertEquals(List.of(), userSearchIndex.search("ana", null, null, null, false, null, 10, false).ids());
+    }
+
+    /**
+     * Test that searches are left to the database until every page is indexed
+     */
+    @Test
+    void load_NotSearchableUntilLoaded() {
+        // Arrange
+        UserSearchIndex loading = new UserSearchIndex(userRepository, null, "memory");
+        when(userRepository.findUsersPageByFilters(isNull(), isNull(), isNull(), isNull(), isNull(), isNull(), any()))
+            .thenAnswer(invocation -> {
+                assertFalse(loading.isEnabled());
+                assertNull(loading.search(null, "bruno", null, null, null, null, 10, false));
+                return List.of(user("b2", "Bruno Diaz", "bruno", "bruno@example.com", "admin", false));
+            });
+
+        // Act
+        loading.load();
+
+        // Assert
+        assertTrue(loading.isEnabled());
+        assertEquals(List.of("b2"), loading.search(null, "bruno", null, null, null, null, 10, false).ids());
+    }
+
+    /**
+     * Test that queries shorter than a trigram are left to the database
+     */
+    @Test
+    void search_ShortQueryNotAnswerable() {
+        assertNull(userSearchIndex.search("an", null, null, null, false, null, 10, false));
+        assertNull(userSearchIndex.search(null, null, null, "admin", false, null, 10, false));
+    }
+}
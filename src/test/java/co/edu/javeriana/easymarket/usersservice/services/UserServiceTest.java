@@ -1,18 +1,32 @@
 package co.edu.javeriana.easymarket.usersservice.services;
 
+import co.edu.javeriana.easymarket.usersservice.dtos.BatchResultDTO;
+import co.edu.javeriana.easymarket.usersservice.dtos.PageDTO;
 import co.edu.javeriana.easymarket.usersservice.model.User;
 import co.edu.javeriana.easymarket.usersservice.repository.UserRepository;
 import co.edu.javeriana.easymarket.usersservice.utils.OperationException;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -24,6 +38,24 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserSearchIndex userSearchIndex;
+
+    @Mock
+    private NotificationOutbox notificationOutbox;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private UserCache userCache = new UserCache(100, Duration.ofMinutes(10));
+
+    @Spy
+    private AdminRoster adminRoster = new AdminRoster();
+
     @InjectMocks
     private UserService userService;
 
@@ -43,22 +75,25 @@ class UserServiceTest {
 
     /**
      * Test retrieving users with no filters
-     * Should return all non-deleted users
+     * Should return the first page of non-deleted users
      */
     @Test
     void getUsersWithNoFilters() {
         // Arrange
         List<User> userList = new ArrayList<>();
         userList.add(testUser);
-        when(userRepository.findUsersByFilters(null, null, null, null, false)).thenReturn(userList);
+        when(userRepository.findUsersPageByFilters(null, null, null, null, false, null, PageRequest.of(0, 51)))
+            .thenReturn(userList);
+        when(userRepository.countUsersByFilters(null, null, null, null, false)).thenReturn(1L);
         
         // Act
-        List<User> result = userService.getUsers(null, null, null, null, null);
+        PageDTO<User> result = userService.getUsers(null, null, null, null, null, null, null, true);
         
         // Assert
-        assertEquals(1, result.size());
-        assertEquals(testUser.getId(), result.get(0).getId());
-        verify(userRepository).findUsersByFilters(null, null, null, null, false);
+        assertEquals(1, result.items().size());
+        assertEquals(testUser.getId(), result.items().get(0).getId());
+        assertNull(result.next());
+        assertEquals(1L, result.total());
     }
     
     /**
@@ -69,17 +104,134 @@ class UserServiceTest {
         // Arrange
         List<User> userList = new ArrayList<>();
         userList.add(testUser);
-        when(userRepository.findUsersByFilters("Test User", "testuser", "test@example.com", "user", false))
-            .thenReturn(userList);
+        when(userRepository.findUsersPageByFilters("Test User", "testuser", "test@example.com", "user", false, null,
+            PageRequest.of(0, 11))).thenReturn(userList);
         
         // Act
-        List<User> result = userService.getUsers("Test User", "testuser", "test@example.com", "user", false);
+        PageDTO<User> result = userService.getUsers("Test User", "testuser", "test@example.com", "user", false,
+            null, 10, false);
         
         // Assert
-        assertEquals(1, result.size());
-        assertEquals(testUser.getId(), result.get(0).getId());
+        assertEquals(1, result.items().size());
+        assertEquals(testUser.getId(), result.items().get(0).getId());
+        assertNull(result.total());
+        verify(userRepository, never()).countUsersByFilters(any(), any(), any(), any(), any());
+    }
+
+    /**
+     * Test that LIKE wildcards in the filters are matched literally by the database, as by the index
+     */
+    @Test
+    void getUsers_EscapesLikeWildcards() {
+        // Arrange
+        when(userRepository.findUsersPageByFilters("50!%!_off!!", null, null, null, false, null, PageRequest.of(0, 11)))
+            .thenReturn(List.of(testUser));
+        when(userRepository.countUsersByFilters("50!%!_off!!", null, null, null, false)).thenReturn(1L);
+
+        // Act
+        PageDTO<User> result = userService.getUsers("50%_off!", null, null, null, false, null, 10, true);
+
+        // Assert
+        assertEquals(1L, result.total());
+        verify(userSearchIndex).search("50%_off!", null, null, null, false, null, 11, true);
+    }
+
+    /**
+     * Test that a full page returns a cursor that resumes after the last id
+     */
+    @Test
+    void getUsers_NextCursorRoundTrip() {
+        // Arrange
+        User second = new User();
+        second.setId("2");
+        User third = new User();
+        third.setId("3");
+        when(userRepository.findUsersPageByFilters(null, null, null, null, false, null, PageRequest.of(0, 3)))
+            .thenReturn(new ArrayList<>(List.of(testUser, second, third)));
+        when(userRepository.findUsersPageByFilters(null, null, null, null, false, "2", PageRequest.of(0, 3)))
+            .thenReturn(new ArrayList<>(List.of(third)));
+
+        // Act
+        PageDTO<User> first = userService.getUsers(null, null, null, null, false, null, 2, false);
+        PageDTO<User> last = userService.getUsers(null, null, null, null, false, first.next(), 2, false);
+
+        // Assert
+        assertEquals(2, first.items().size());
+        assertNotNull(first.next());
+        assertEquals(1, last.items().size());
+        assertEquals("3", last.items().get(0).getId());
+        assertNull(last.next());
+    }
+
+    /**
+     * Test that text filters answered by the in-memory index load only the matching rows
+     */
+    @Test
+    void getUsers_UsesSearchIndex() {
+        // Arrange
+        User second = new User();
+        second.setId("2");
+        when(userSearchIndex.search(null, "user", null, null, false, null, 11, true))
+            .thenReturn(new UserSearchIndex.SearchResult(List.of("1", "2"), 2L));
+        when(userRepository.findAllById(List.of("1", "2"))).thenReturn(List.of(second, testUser));
+
+        // Act
+        PageDTO<User> result = userService.getUsers(null, "user", null, null, false, null, 10, true);
+
+        // Assert
+        assertEquals(List.of("1", "2"), result.items().stream().map(User::getId).toList());
+        assertEquals(2L, result.total());
+        verify(userRepository, never()).findUsersPageByFilters(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    /**
+     * Test requesting a page size outside the allowed range
+     */
+    @Test
+    void getUsers_InvalidLimit() {
+        // Act & Assert
+        OperationException exception = assertThrows(OperationException.class, () -> {
+            userService.getUsers(null, null, null, null, false, null, 0, false);
+        });
+
+        assertEquals(400, exception.getCode());
+    }
+
+    /**
+     * Test requesting a page with a malformed cursor
+     */
+    @Test
+    void getUsers_InvalidCursor() {
+        // Act & Assert
+        OperationException exception = assertThrows(OperationException.class, () -> {
+            userService.getUsers(null, null, null, null, false, "not*base64", 10, false);
+        });
+
+        assertEquals(400, exception.getCode());
+        assertEquals("Invalid cursor", exception.getMessage());
     }
     
+    /**
+     * Test exporting users streams every row to the consumer and detaches it afterwards
+     */
+    @Test
+    void exportUsers_StreamsAndDetachesRows() {
+        // Arrange
+        User second = new User();
+        second.setId("2");
+        when(userRepository.streamUsersByFilters(null, null, null, "user", false))
+            .thenReturn(Stream.of(testUser, second));
+        List<String> exported = new ArrayList<>();
+
+        // Act
+        userService.exportUsers(null, null, null, "user", null, user -> exported.add(user.getId()));
+
+        // Assert
+        assertEquals(List.of("1", "2"), exported);
+        verify(entityManager).detach(testUser);
+        verify(entityManager).detach(second);
+    }
+
     /**
      * Test successful user retrieval by ID
      */
@@ -96,6 +248,88 @@ class UserServiceTest {
         assertEquals(testUser.getUsername(), result.getUsername());
     }
     
+    /**
+     * Test that repeated reads are served from the cache
+     */
+    @Test
+    void getUserById_CachesResult() throws OperationException {
+        // Arrange
+        when(userRepository.findById("1")).thenReturn(Optional.of(testUser));
+
+        // Act
+        userService.getUser("1");
+        User result = userService.getUser("1");
+
+        // Assert
+        assertSame(testUser, result);
+        verify(userRepository, times(1)).findById("1");
+    }
+
+    /**
+     * Test that an update invalidates the cached user so the next read reloads it
+     */
+    @Test
+    void getUserById_InvalidatedByUpdate() throws OperationException {
+        // Arrange
+        User updateData = new User();
+        updateData.setFullname("Renamed User");
+        when(userRepository.findById("1")).thenReturn(Optional.of(testUser));
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+
+        // Act
+        userService.getUser("1");
+        userService.updateUser("1", updateData);
+        userService.getUser("1");
+
+        // Assert
+        verify(userCache).invalidate("1");
+        verify(userRepository, times(3)).findById("1");
+    }
+
+    /**
+     * Test multi-get resolving cache misses with one query and keeping the request order
+     */
+    @Test
+    void getUsersByIds_ResolvesMissesInOneQuery() throws OperationException {
+        // Arrange
+        User second = new User();
+        second.setId("2");
+        second.setDeleted(false);
+        User deleted = new User();
+        deleted.setId("3");
+        deleted.setDeleted(true);
+        when(userRepository.findById("1")).thenReturn(Optional.of(testUser));
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of(deleted, second));
+        userService.getUser("1");  // Warm the cache for "1"
+
+        // Act
+        Map<String, User> result = userService.getUsersByIds(List.of("2", "1", "404", "3", "2"));
+
+        // Assert
+        assertEquals(List.of("2", "1"), List.copyOf(result.keySet()));
+        verify(userRepository, times(1)).findAllById(Set.of("2", "404", "3"));
+    }
+
+    /**
+     * Test that null ids are dropped and a lookup without any id is rejected
+     */
+    @Test
+    void getUsersByIds_DropsNullIds() throws OperationException {
+        // Arrange
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of(testUser));
+
+        // Act
+        Map<String, User> result = userService.getUsersByIds(Arrays.asList(null, "1", null));
+
+        // Assert
+        assertEquals(List.of("1"), List.copyOf(result.keySet()));
+        verify(userRepository).findAllById(Set.of("1"));
+        OperationException exception = assertThrows(OperationException.class,
+            () -> userService.getUsersByIds(Arrays.asList(null, null)));
+        assertEquals(400, exception.getCode());
+        assertEquals("At least one id is required", exception.getMessage());
+    }
+
     /**
      * Test getting a non-existent user
      * Should throw OperationException with 404 status
@@ -138,6 +372,7 @@ class UserServiceTest {
     
     /**
      * Test successful user creation
+     * Should insert in a single statement without pre-insert lookups
      */
     @Test
     void createUser_Success() throws OperationException {
@@ -147,10 +382,7 @@ class UserServiceTest {
         newUser.setUsername("newuser");
         newUser.setEmail("new@example.com");
         
-        when(userRepository.findById("2")).thenReturn(Optional.empty());
-        when(userRepository.findByEmail("new@example.com")).thenReturn(Optional.empty());
-        when(userRepository.findByUsername("newuser")).thenReturn(Optional.empty());
-        when(userRepository.save(any(User.class))).thenReturn(newUser);
+        when(userRepository.insertUser("2", "new@example.com", null, "newuser", null, false)).thenReturn(1);
         
         // Act
         User result = userService.createUser(newUser);
@@ -160,6 +392,11 @@ class UserServiceTest {
         assertEquals("newuser", result.getUsername());
         assertEquals("new@example.com", result.getEmail());
         assertFalse(result.getDeleted());
+        assertEquals(0L, result.getVersion());
+        verify(userRepository, never()).findById(any());
+        verify(userRepository, never()).findByEmail(any());
+        verify(userRepository, never()).findByUsername(any());
+        verify(notificationOutbox).userCreated(newUser);
     }
     
     /**
@@ -171,7 +408,8 @@ class UserServiceTest {
         // Arrange
         User newUser = new User();
         newUser.setId("1");  // Same ID as testUser
-        when(userRepository.findById("1")).thenReturn(Optional.of(testUser));
+        when(userRepository.insertUser(eq("1"), any(), any(), any(), any(), anyBoolean()))
+            .thenThrow(uniqueViolation("user_pkey"));
         
         // Act & Assert
         OperationException exception = assertThrows(OperationException.class, () -> {
@@ -192,8 +430,8 @@ class UserServiceTest {
         newUser.setId("2");
         newUser.setEmail("test@example.com");  // Same email as testUser
         
-        when(userRepository.findById("2")).thenReturn(Optional.empty());
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(userRepository.insertUser(eq("2"), eq("test@example.com"), any(), any(), any(), anyBoolean()))
+            .thenThrow(uniqueViolation("user_email_key"));
         
         // Act & Assert
         OperationException exception = assertThrows(OperationException.class, () -> {
@@ -215,9 +453,8 @@ class UserServiceTest {
         newUser.setEmail("new@example.com");
         newUser.setUsername("testuser");  // Same username as testUser
         
-        when(userRepository.findById("2")).thenReturn(Optional.empty());
-        when(userRepository.findByEmail("new@example.com")).thenReturn(Optional.empty());
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(userRepository.insertUser(eq("2"), eq("new@example.com"), any(), eq("testuser"), any(), anyBoolean()))
+            .thenThrow(uniqueViolation("user_username_key"));
         
         // Act & Assert
         OperationException exception = assertThrows(OperationException.class, () -> {
@@ -228,6 +465,49 @@ class UserServiceTest {
         assertEquals("Username already in use", exception.getMessage());
     }
     
+    /**
+     * Test that a missing email is reported as a missing field, not as an email already in use
+     */
+    @Test
+    void createUser_MissingEmail() {
+        // Arrange
+        User newUser = new User();
+        newUser.setId("2");
+        newUser.setUsername("newuser");
+
+        when(userRepository.insertUser(eq("2"), isNull(), any(), eq("newuser"), any(), anyBoolean()))
+            .thenThrow(notNullViolation("email"));
+
+        // Act & Assert
+        OperationException exception = assertThrows(OperationException.class, () -> {
+            userService.createUser(newUser);
+        });
+
+        assertEquals(400, exception.getCode());
+        assertEquals("email is required", exception.getMessage());
+    }
+
+    /**
+     * Test that a unique violation on an unknown constraint is not mistaken for a duplicate email
+     */
+    @Test
+    void createUser_UnknownUniqueViolation() {
+        // Arrange
+        User newUser = new User();
+        newUser.setId("2");
+        newUser.setEmail("new@example.com");
+
+        when(userRepository.insertUser(any(), any(), any(), any(), any(), anyBoolean()))
+            .thenThrow(uniqueViolation("user_email_lower_idx"));
+
+        // Act & Assert
+        OperationException exception = assertThrows(OperationException.class, () -> {
+            userService.createUser(newUser);
+        });
+
+        assertEquals(500, exception.getCode());
+    }
+
     /**
      * Test server error during user creation
      */
@@ -239,10 +519,8 @@ class UserServiceTest {
         newUser.setUsername("newuser");
         newUser.setEmail("new@example.com");
         
-        when(userRepository.findById("2")).thenReturn(Optional.empty());
-        when(userRepository.findByEmail("new@example.com")).thenReturn(Optional.empty());
-        when(userRepository.findByUsername("newuser")).thenReturn(Optional.empty());
-        when(userRepository.save(any(User.class))).thenThrow(new RuntimeException("Database error"));
+        when(userRepository.insertUser(any(), any(), any(), any(), any(), anyBoolean()))
+            .thenThrow(new RuntimeException("Database error"));
         
         // Act & Assert
         OperationException exception = assertThrows(OperationException.class, () -> {
@@ -252,7 +530,162 @@ class UserServiceTest {
         assertEquals(500, exception.getCode());
         assertEquals("User could not be created", exception.getMessage());
     }
+
+    /**
+     * Test bulk creation reporting per-item conflicts against the database and within the batch
+     */
+    @Test
+    void createUsers_ReportsPerItemResults() throws OperationException {
+        // Arrange
+        User fresh = newUser("2", "new@example.com", "newuser");
+        User takenEmail = newUser("3", "test@example.com", "other");  // Same email as testUser
+        User repeatedUsername = newUser("4", "fourth@example.com", "newuser");  // Same username as the first item
+
+        when(userRepository.findConflicting(anyCollection(), anyCollection(), anyCollection()))
+            .thenReturn(List.of(testUser));
+
+        // Act
+        List<BatchResultDTO<User>> results = userService.createUsers(List.of(fresh, takenEmail, repeatedUsername));
+
+        // Assert
+        assertEquals(List.of(201, 400, 400), results.stream().map(BatchResultDTO::status).toList());
+        assertEquals("Email already in use", results.get(1).message());
+        assertEquals("Username already in use", results.get(2).message());
+        verify(userRepository).insertUsers(List.of(fresh));
+        verify(userRepository, times(1)).findConflicting(anyCollection(), anyCollection(), anyCollection());
+        verify(notificationOutbox).usersCreated(List.of(fresh));
+    }
+
+    /**
+     * Test that invalid items get their own 400 and do not claim keys that a later valid item uses
+     */
+    @Test
+    void createUsers_InvalidItemsDoNotClaimKeys() throws OperationException {
+        // Arrange
+        User missingFullname = newUser("2", "new@example.com", "newuser");
+        missingFullname.setFullname(null);
+        User longUsername = newUser("3", "third@example.com", "a".repeat(21));
+        User valid = newUser("2", "new@example.com", "newuser");  // Same keys as the rejected first item
+
+        when(userRepository.findConflicting(anyCollection(), anyCollection(), anyCollection())).thenReturn(List.of());
+
+        // Act
+        List<BatchResultDTO<User>> results = userService.createUsers(List.of(missingFullname, longUsername, valid));
+
+        // Assert
+        assertEquals(List.of(400, 400, 201), results.stream().map(BatchResultDTO::status).toList());
+        assertEquals("fullname is required", results.get(0).message());
+        assertEquals("username is longer than 20 characters", results.get(1).message());
+        verify(userRepository).insertUsers(List.of(valid));
+    }
+
+    /**
+     * Test bulk creation losing a race against a concurrent insert
+     */
+    @Test
+    void createUsers_ConcurrentConflict() {
+        // Arrange
+        User fresh = newUser("2", "new@example.com", "newuser");
+        when(userRepository.findConflicting(anyCollection(), anyCollection(), anyCollection())).thenReturn(List.of());
+        doThrow(uniqueViolation("user_pkey")).when(userRepository).insertUsers(anyList());
+
+        // Act & Assert
+        OperationException exception = assertThrows(OperationException.class, () -> {
+            userService.createUsers(List.of(fresh));
+        });
+
+        assertEquals(409, exception.getCode());
+    }
+
+    private static User newUser(String id, String email, String username) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setUsername(username);
+        user.setFullname("New User");
+        user.setRol("user");
+        return user;
+    }
+
+    private static DataIntegrityViolationException notNullViolation(String column) {
+        return new DataIntegrityViolationException("could not execute statement",
+            new ConstraintViolationException("null value", new SQLException("null value", "23502"), column));
+    }
+
+    private static DataIntegrityViolationException uniqueViolation(String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+            new ConstraintViolationException("duplicate key", new SQLException("duplicate key", "23505"), constraint));
+    }
     
+    /**
+     * Test a partial update: one guarded UPDATE, then the cache, index and admin roster follow the change
+     */
+    @Test
+    void patchUser_Success() throws OperationException {
+        // Arrange
+        testUser.setRol("admin");
+        adminRoster.apply(testUser);
+        User changes = new User();
+        changes.setEmail("renamed@example.com");
+        when(userRepository.patch("1", 3L, changes)).thenReturn(1);
+
+        // Act
+        long version = userService.patchUser("1", 3L, changes);
+
+        // Assert
+        assertEquals(4L, version);
+        verify(userRepository, never()).findById(any());
+        verify(userRepository, never()).save(any());
+        verify(userCache).invalidate("1");
+        verify(userSearchIndex).patch("1", null, null, "renamed@example.com");
+        assertArrayEquals(new String[]{"renamed@example.com"}, adminRoster.emails());
+    }
+
+    /**
+     * Test a partial update against a stale version, a missing user and a role change
+     */
+    @Test
+    void patchUser_Rejected() {
+        // Arrange
+        User changes = new User();
+        changes.setFullname("Renamed User");
+        when(userRepository.patch(anyString(), eq(3L), eq(changes))).thenReturn(0);
+        when(userRepository.existsById("1")).thenReturn(true);
+        when(userRepository.existsById("2")).thenReturn(false);
+        User roleChange = new User();
+        roleChange.setRol("admin");
+
+        // Act & Assert
+        assertEquals(409, assertThrows(OperationException.class, () -> userService.patchUser("1", 3L, changes)).getCode());
+        assertEquals(404, assertThrows(OperationException.class, () -> userService.patchUser("2", 3L, changes)).getCode());
+        assertEquals(400, assertThrows(OperationException.class, () -> userService.patchUser("1", 3L, roleChange)).getCode());
+        verify(userCache, never()).invalidate(any());
+    }
+
+    /**
+     * Test that a partial update failing on a duplicate or an unexpected constraint reports the update
+     */
+    @Test
+    void patchUser_IntegrityViolation() {
+        // Arrange
+        User changes = new User();
+        changes.setEmail("taken@example.com");
+        when(userRepository.patch("1", 3L, changes))
+            .thenThrow(uniqueViolation("user_email_key"))
+            .thenThrow(uniqueViolation("user_unknown_key"));
+
+        // Act
+        OperationException duplicate = assertThrows(OperationException.class, () -> userService.patchUser("1", 3L, changes));
+        OperationException unexpected = assertThrows(OperationException.class, () -> userService.patchUser("1", 3L, changes));
+
+        // Assert
+        assertEquals(400, duplicate.getCode());
+        assertEquals("Email already in use", duplicate.getMessage());
+        assertEquals(500, unexpected.getCode());
+        assertEquals("User could not be updated", unexpected.getMessage());
+        verify(userCache, never()).invalidate(any());
+    }
+
     /**
      * Test successful user update with all fields
      */
@@ -286,6 +719,29 @@ class UserServiceTest {
         assertEquals("updateduser", result.getUsername());
         assertEquals("Updated User", result.getFullname());
         assertEquals("admin", result.getRol());
+        verify(userRepository, times(1)).findById("1");
+        verify(eventPublisher).publishEvent(new UserRoleChangedEvent(updatedUser, "user", "admin"));
+    }
+
+    /**
+     * Test that an update keeping the role records no role change event
+     */
+    @Test
+    void updateUser_SameRol_NoRoleChangeEvent() throws OperationException {
+        // Arrange
+        User updateData = new User();
+        updateData.setFullname("Renamed User");
+        updateData.setRol("user");
+
+        when(userRepository.findById("1")).thenReturn(Optional.of(testUser));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        User result = userService.updateUser("1", updateData);
+
+        // Assert
+        assertEquals("Renamed User", result.getFullname());
+        verify(eventPublisher, never()).publishEvent(any());
     }
     
     /**
@@ -377,6 +833,7 @@ class UserServiceTest {
         
         // Assert
         assertTrue(result.getDeleted());
+        verify(notificationOutbox).userDeleted(deletedUser);
     }
     
     /**
@@ -437,6 +894,7 @@ class UserServiceTest {
         
         // Assert
         assertFalse(result.getDeleted());
+        verify(notificationOutbox).userRestored(restoredUser);
         
         // Reset testUser state
         testUser.setDeleted(false);
@@ -474,6 +932,7 @@ class UserServiceTest {
         // Assert
         assertFalse(result.getDeleted());
         verify(userRepository, never()).save(any(User.class)); // Verify save was not called
+        verify(notificationOutbox, never()).userRestored(any());
     }
     
     /**
@@ -490,6 +949,7 @@ class UserServiceTest {
         });
         
         verify(userRepository).delete(testUser);
+        verify(notificationOutbox).userPurged(testUser);
     }
     
     /**
@@ -518,10 +978,12 @@ class UserServiceTest {
         List<User> adminUsers = new ArrayList<>();
         
         User admin1 = new User();
+        admin1.setId("10");
         admin1.setEmail("admin1@example.com");
         admin1.setRol("admin");
         
         User admin2 = new User();
+        admin2.setId("11");
         admin2.setEmail("admin2@example.com");
         admin2.setRol("admin");
         
@@ -531,11 +993,34 @@ class UserServiceTest {
         when(userRepository.findUsersByFilters(null, null, null, "admin", false)).thenReturn(adminUsers);
         
         // Act
+        userService.loadAdminRoster();
+        userService.getAllAdminEmails();
         String[] result = userService.getAllAdminEmails();
         
         // Assert
         assertEquals(2, result.length);
         assertEquals("admin1@example.com", result[0]);
         assertEquals("admin2@example.com", result[1]);
+        verify(userRepository, times(1)).findUsersByFilters(null, null, null, "admin", false);
+    }
+
+    /**
+     * Test that role changes and soft deletes keep the admin roster current without queries
+     */
+    @Test
+    void getAllAdminEmails_FollowsUserChanges() throws OperationException {
+        // Arrange
+        User promotion = new User();
+        promotion.setRol("admin");
+        when(userRepository.findById("1")).thenReturn(Optional.of(testUser));
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act & Assert
+        userService.updateUser("1", promotion);
+        assertArrayEquals(new String[]{"test@example.com"}, userService.getAllAdminEmails());
+
+        userService.deleteUser("1");
+        assertArrayEquals(new String[0], userService.getAllAdminEmails());
+        verify(userRepository, never()).findUsersByFilters(any(), any(), any(), any(), any());
     }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package co.edu.javeriana.easymarket.usersservice.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkIdsTest {
+
+    /**
+     * Test that nulls and duplicates are dropped and the request order is kept
+     */
+    @Test
+    void distinct_DropsNullsAndDuplicates() {
+        // Act & Assert
+        assertEquals(List.of(3, 1, 2), List.copyOf(BulkIds.distinct(Arrays.asList(3, 1, null, 3, 2, 1), 3, "deleted")));
+    }
+
+    /**
+     * Test that empty and oversized requests are rejected
+     */
+    @Test
+    void distinct_RejectsEmptyAndOversized() {
+        // Act & Assert
+        assertEquals(400, assertThrows(OperationException.class, () -> BulkIds.distinct(null, 3, "deleted")).getCode());
+        assertEquals(400, assertThrows(OperationException.class, () -> BulkIds.distinct(Arrays.asList(null, null), 3, "deleted")).getCode());
+        OperationException oversized = assertThrows(OperationException.class, () -> BulkIds.distinct(List.of(1, 2, 3, 4), 3, "deleted"));
+        assertEquals(400, oversized.getCode());
+        assertEquals("At most 3 ids can be deleted at once", oversized.getMessage());
+    }
+}
@@ -0,0 +1,49 @@
+package co.edu.javeriana.easymarket.usersservice.utils;
+
+import co.edu.javeriana.easymarket.usersservice.model.Address;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagsTest {
+
+    /**
+     * Test that a collection tag changes when an element is updated, added or reordered
+     */
+    @Test
+    void of_CollectionTracksEveryElement() {
+        // Arrange
+        Address home = address(1, 0L);
+        Address work = address(2, 0L);
+        String tag = ETags.of(List.of(home, work), Address::getId, Address::getVersion);
+
+        // Act & Assert
+        assertEquals(tag, ETags.of(List.of(address(1, 0L), address(2, 0L)), Address::getId, Address::getVersion));
+        assertNotEquals(tag, ETags.of(List.of(home, address(2, 1L)), Address::getId, Address::getVersion));
+        assertNotEquals(tag, ETags.of(List.of(home, work, address(3, 0L)), Address::getId, Address::getVersion));
+        assertNotEquals(tag, ETags.of(List.of(work, home), Address::getId, Address::getVersion));
+        assertEquals("\"0-cbf29ce484222325\"", ETags.of(List.<Address>of(), Address::getId, Address::getVersion));
+        assertEquals("\"7\"", ETags.of(7L));
+    }
+
+    /**
+     * Test reading the version back from If-Match
+     */
+    @Test
+    void version_FromIfMatch() {
+        // Act & Assert
+        assertEquals(7L, ETags.version(" \"7\" "));
+        assertEquals(428, assertThrows(OperationException.class, () -> ETags.version(null)).getCode());
+        assertEquals(400, assertThrows(OperationException.class, () -> ETags.version("W/\"7\"")).getCode());
+        assertEquals(400, assertThrows(OperationException.class, () -> ETags.version("\"2-cbf29ce484222325\"")).getCode());
+    }
+
+    private static Address address(int id, long version) {
+        Address address = new Address();
+        address.setId(id);
+        address.setVersion(version);
+        return address;
+    }
+}
@@ -0,0 +1,38 @@
+package co.edu.javeriana.easymarket.usersservice.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoGridTest {
+
+    /**
+     * Test cell ids: rows of 0.1 degrees counted from the south pole, columns from the antimeridian
+     */
+    @Test
+    void cell_MatchesGridFormula() {
+        // Act & Assert
+        assertEquals(0, GeoGrid.cell(new BigDecimal("-90"), new BigDecimal("-180")));
+        assertEquals(1307L * GeoGrid.COLUMNS + 1059, GeoGrid.cell(new BigDecimal("40.7128"), new BigDecimal("-74.0060")));
+        assertEquals(1800L * GeoGrid.COLUMNS + 3599, GeoGrid.cell(new BigDecimal("90"), new BigDecimal("180")));
+    }
+
+    /**
+     * Test that the searched cells wrap around the antimeridian and fall back to whole rows near the poles
+     */
+    @Test
+    void cellsWithin_WrapsAndFallsBack() {
+        // Act
+        long[] cells = GeoGrid.cellsWithin(0, 179.99, 5);
+
+        // Assert
+        assertTrue(Arrays.stream(cells).anyMatch(cell -> cell == GeoGrid.cell(900, 0)));
+        assertTrue(Arrays.stream(cells).anyMatch(cell -> cell == GeoGrid.cell(900, GeoGrid.COLUMNS - 1)));
+        assertNull(GeoGrid.cellsWithin(89.9, 0, 50));
+        assertArrayEquals(new long[]{GeoGrid.cell(1794, 0), GeoGrid.cell(1800, GeoGrid.COLUMNS - 1)},
+                GeoGrid.rowRange(89.9, 50));
+    }
+}